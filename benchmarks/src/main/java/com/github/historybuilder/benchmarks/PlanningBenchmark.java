@@ -0,0 +1,63 @@
+package com.github.historybuilder.benchmarks;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.generator.ContributionGenerator;
+import com.github.historybuilder.generator.IntelligentContributionGenerator;
+import com.github.historybuilder.generator.RandomContributionGenerator;
+import com.github.historybuilder.model.DistributionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans a whole history with each generator. One operation is one full plan;
+ * plan blocks go to a blackhole so only planning is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlanningBenchmark {
+
+    @Param({"INTELLIGENT", "RANDOM"})
+    public DistributionPattern pattern;
+
+    @Param({"1", "10", "30"})
+    public int years;
+
+    private HistoryConfig config;
+    private ContributionGenerator generator;
+
+    @Setup
+    public void setUp() {
+        config = new HistoryConfig();
+        config.setSeed(42L);
+        config.setYearsBack(years);
+        // Fixed dates keep the commit count identical between runs and releases
+        config.setEndDate(LocalDate.of(2024, 12, 31));
+        config.setStartDate(config.getEndDate().minusYears(years));
+
+        generator = pattern == DistributionPattern.RANDOM
+                ? new RandomContributionGenerator()
+                : new IntelligentContributionGenerator();
+    }
+
+    @Benchmark
+    public void generatePlan(Blackhole blackhole) {
+        generator.generatePlan(config, blackhole::consume);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.historybuilder.benchmarks;
+
+import com.github.historybuilder.generator.CommitMessageGenerator;
+import com.github.historybuilder.generator.FileContentGenerator;
+import com.github.historybuilder.pattern.TimePatternCalculator;
+import com.github.historybuilder.util.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-commit costs of the planning path: message, log line and day intensity.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TextGenerationBenchmark {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private RandomSource random;
+    private int day;
+
+    @Setup
+    public void setUp() {
+        random = new RandomSource(42);
+    }
+
+    @Benchmark
+    public String generateCommitMessage() {
+        return CommitMessageGenerator.generateCommitMessage(random);
+    }
+
+    @Benchmark
+    public int nextMessageId() {
+        return CommitMessageGenerator.nextMessageId(random);
+    }
+
+    @Benchmark
+    public String generateLogLine() {
+        return FileContentGenerator.generateLogLine(nextDay(), random);
+    }
+
+    @Benchmark
+    public double getIntensityMultiplier() {
+        return TimePatternCalculator.getIntensityMultiplier(nextDay());
+    }
+
+    /**
+     * Walks four years of dates so weekday and season branches are all taken.
+     */
+    private LocalDate nextDay() {
+        day = (day + 1) % 1461;
+        return FIRST_DAY.plusDays(day);
+    }
+}
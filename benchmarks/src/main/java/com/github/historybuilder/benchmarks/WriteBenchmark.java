@@ -0,0 +1,101 @@
+package com.github.historybuilder.benchmarks;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.generator.IntelligentContributionGenerator;
+import com.github.historybuilder.git.GitRepositoryManager;
+import com.github.historybuilder.model.Commit;
+import com.github.historybuilder.model.WriteMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes a fixed plan into a fresh temporary repository per invocation.
+ * Scores are commits per second, including the final flush, repack and checkout.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBenchmark {
+    /**
+     * Commits written per invocation; must match {@link OperationsPerInvocation}.
+     */
+    private static final int COMMITS = 500;
+
+    @Param({"WORKING_TREE", "OBJECT_DATABASE", "PACK"})
+    public WriteMode writeMode;
+
+    @Param({"1"})
+    public int writerThreads;
+
+    private List<Commit> commits;
+    private Path repository;
+    private GitRepositoryManager manager;
+
+    @Setup(Level.Trial)
+    public void planCommits() {
+        HistoryConfig config = new HistoryConfig();
+        config.setSeed(42L);
+        config.setContributionProbability(1.0);
+        config.setEndDate(LocalDate.of(2024, 12, 31));
+        config.setStartDate(config.getEndDate().minusYears(1));
+
+        commits = new IntelligentContributionGenerator().generateCommits(config);
+        if (commits.size() < COMMITS) {
+            throw new IllegalStateException("Plan has only " + commits.size() + " commits");
+        }
+        commits = commits.subList(0, COMMITS);
+    }
+
+    @Setup(Level.Invocation)
+    public void createRepository() throws Exception {
+        repository = Files.createTempDirectory("history-builder-bench");
+
+        HistoryConfig config = new HistoryConfig();
+        config.setRepositoryPath(repository.toString());
+        config.setWriteMode(writeMode);
+        config.setWriterThreads(writerThreads);
+
+        manager = new GitRepositoryManager();
+        manager.initializeRepository(config);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMITS)
+    public long writeCommits() throws Exception {
+        long written = manager.writeCommits(commits.iterator());
+        manager.finish();
+        return written;
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteRepository() throws IOException {
+        manager.close();
+        try (Stream<Path> paths = Files.walk(repository)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
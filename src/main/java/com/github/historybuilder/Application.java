@@ -1,7 +1,13 @@
 package com.github.historybuilder;
 
+import com.github.historybuilder.config.BatchManifest;
 import com.github.historybuilder.config.HistoryConfig;
 import com.github.historybuilder.config.ConfigurationLoader;
+import com.github.historybuilder.git.FastImportWriter;
+import com.github.historybuilder.model.Durability;
+import com.github.historybuilder.model.LogRotation;
+import com.github.historybuilder.model.ProgressStyle;
+import com.github.historybuilder.model.WriteMode;
 import com.github.historybuilder.tracking.ExecutionReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +31,9 @@ public class Application implements Callable<Integer> {
     @Option(names = {"-c", "--config"}, description = "Path to configuration file (YAML or JSON)")
     private String configPath;
 
+    @Option(names = {"--manifest"}, description = "Path to a batch manifest (YAML or JSON) listing many repositories to build")
+    private String manifestPath;
+
     @Option(names = {"-y", "--years"}, description = "Years back to generate contributions (default: 5)")
     private Integer yearsBack = 5;
 
@@ -46,6 +55,42 @@ public class Application implements Callable<Integer> {
     @Option(names = {"-e", "--email"}, description = "Author email (default: bot@example.com)")
     private String authorEmail = "bot@example.com";
 
+    @Option(names = {"-w", "--write-mode"}, description = "How commits are written: WORKING_TREE, OBJECT_DATABASE, PACK, IN_MEMORY or FAST_IMPORT (default: WORKING_TREE)")
+    private WriteMode writeMode = WriteMode.WORKING_TREE;
+
+    @Option(names = {"--bare"}, description = "Create a bare repository (requires OBJECT_DATABASE, PACK or IN_MEMORY write mode)")
+    private boolean bare = false;
+
+    @Option(names = {"--fast-import-output"}, description = "Fast-import stream destination for FAST_IMPORT write mode, '-' for stdout (default: -)")
+    private String fastImportOutput = FastImportWriter.STDOUT;
+
+    @Option(names = {"--log-rotation"}, description = "Split the contribution log: NONE, YEARLY or MONTHLY (default: NONE; rotate for long histories)")
+    private LogRotation logRotation = LogRotation.NONE;
+
+    @Option(names = {"-s", "--seed"}, description = "Random seed; the same seed reproduces the same history (default: random)")
+    private Long seed;
+
+    @Option(names = {"--checkpoint-interval"}, description = "Commits between checkpoints in OBJECT_DATABASE and PACK write mode, 0 to disable (default: 10000)")
+    private int checkpointInterval = 10000;
+
+    @Option(names = {"--durability"}, description = "Crash durability of the written repository: FAST, DEFAULT or DURABLE (default: DEFAULT)")
+    private Durability durability;
+
+    @Option(names = {"--resume"}, description = "Continue an interrupted build from the repository's last checkpoint")
+    private boolean resume;
+
+    @Option(names = {"--extend"}, description = "Add the days since the repository's latest commit on top of it")
+    private boolean extend;
+
+    @Option(names = {"--heatmap"}, description = "Create exactly the commits per day listed in a heatmap file (CSV or binary grid)")
+    private String heatmapFile;
+
+    @Option(names = {"--metrics"}, description = "Write build metrics to this file: JSON if it ends in .json, otherwise Prometheus text format")
+    private String metricsFile;
+
+    @Option(names = {"--progress"}, description = "How write progress is reported: LOG, BAR, JSON or NONE (default: LOG)")
+    private ProgressStyle progress;
+
     @Option(names = {"--dry-run"}, description = "Preview without creating repository")
     private boolean dryRun = false;
 
@@ -54,6 +99,10 @@ public class Application implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
+        if (manifestPath != null) {
+            return runBatch();
+        }
+
         HistoryConfig config;
 
         // Load configuration
@@ -76,12 +125,37 @@ public class Application implements Callable<Integer> {
             config.setRepositoryPath(repositoryPath);
             config.setAuthorName(authorName);
             config.setAuthorEmail(authorEmail);
+            config.setWriteMode(writeMode);
+            config.setBare(bare);
+            config.setFastImportOutput(fastImportOutput);
+            config.setLogRotation(logRotation);
+            config.setSeed(seed);
+            config.setCheckpointInterval(checkpointInterval);
             config.setDryRun(dryRun);
             config.setVerbose(verbose);
             config.setEndDate(LocalDate.now());
             config.setStartDate(config.getEndDate().minusYears(yearsBack));
         }
 
+        if (resume) {
+            config.setResume(true);
+        }
+        if (extend) {
+            config.setExtend(true);
+        }
+        if (heatmapFile != null) {
+            config.setHeatmapFile(heatmapFile);
+        }
+        if (metricsFile != null) {
+            config.setMetricsFile(metricsFile);
+        }
+        if (progress != null) {
+            config.setProgress(progress);
+        }
+        if (durability != null) {
+            config.setDurability(durability);
+        }
+
         // Build history
         GitHistoryBuilder builder = new GitHistoryBuilder(config);
         ExecutionReport report = builder.build();
@@ -89,7 +163,15 @@ public class Application implements Callable<Integer> {
         // Print report
         report.printSummary();
 
-        if (report.isSuccess()) {
+        if (report.isSuccess() && config.getWriteMode() == WriteMode.FAST_IMPORT) {
+            // stdout may carry the stream itself, so keep messages on stderr
+            System.err.println("\n✓ Fast-import stream successfully generated!");
+            System.err.println("Next steps:");
+            System.err.println("  1. git init <repo> && cd <repo>");
+            System.err.println("  2. git fast-import < <stream-file>   (or pipe this command's stdout)");
+            System.err.println("  3. git checkout master");
+            return 0;
+        } else if (report.isSuccess()) {
             System.out.println("\n✓ GitHub history successfully generated!");
             System.out.println("Next steps:");
             System.out.println("  1. cd " + (repositoryPath != null ? repositoryPath : "./generated-github-repo"));
@@ -106,6 +188,37 @@ public class Application implements Callable<Integer> {
         }
     }
 
+    /**
+     * Builds every repository listed in the manifest.
+     */
+    private int runBatch() throws Exception {
+        BatchManifest manifest = ConfigurationLoader.loadManifest(manifestPath);
+        for (HistoryConfig config : manifest.getRepositories()) {
+            if (resume) {
+                config.setResume(true);
+            }
+            if (extend) {
+                config.setExtend(true);
+            }
+            if (dryRun) {
+                config.setDryRun(true);
+            }
+        }
+
+        ExecutionReport report = new BatchRunner(manifest).run();
+        report.printSummary();
+
+        if (report.isSuccess()) {
+            System.out.println("\n✓ " + manifest.getRepositories().size() + " repositories successfully generated!");
+            return 0;
+        }
+        System.err.println("\n✗ Failed to generate all repositories");
+        if (report.getErrorMessage() != null) {
+            System.err.println("Error: " + report.getErrorMessage());
+        }
+        return 1;
+    }
+
     /**
      * Main entry point.
      */
@@ -0,0 +1,110 @@
+package com.github.historybuilder;
+
+import com.github.historybuilder.config.BatchManifest;
+import com.github.historybuilder.config.ConfigurationValidator;
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.tracking.ExecutionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds every repository of a batch manifest in one JVM.
+ * Builds run on a fixed pool of manifest-parallelism threads, so warm-up is paid once
+ * and the machine is never oversubscribed by more than that many builds. Each build
+ * keeps its own planning and hashing threads; lower planning_threads and
+ * writer_threads per entry when parallelism is high.
+ */
+public class BatchRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+
+    private final BatchManifest manifest;
+
+    public BatchRunner(BatchManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Builds all repositories and combines their reports. A failed build does not stop
+     * the others; it is reported in the combined report.
+     */
+    public ExecutionReport run() {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            ConfigurationValidator.validate(manifest);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid batch manifest", e);
+            ExecutionReport report = new ExecutionReport();
+            report.setSuccess(false);
+            report.setErrorMessage(e.getMessage());
+            report.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+            return report;
+        }
+
+        List<HistoryConfig> configs = manifest.getRepositories();
+        int parallelism = Math.min(manifest.getParallelism(), configs.size());
+        logger.info("Building {} repositories, {} at a time", configs.size(), parallelism);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService builders = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-builder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<ExecutionReport> reports = new ArrayList<>();
+        try {
+            List<Future<ExecutionReport>> builds = new ArrayList<>();
+            for (HistoryConfig config : configs) {
+                builds.add(builders.submit(() -> build(config)));
+            }
+            for (int i = 0; i < builds.size(); i++) {
+                reports.add(await(builds.get(i), configs.get(i)));
+            }
+        } finally {
+            builders.shutdownNow();
+        }
+
+        ExecutionReport total = ExecutionReport.aggregate(reports, System.currentTimeMillis() - startTime);
+        logger.info("Batch finished: {} of {} repositories built",
+                reports.stream().filter(ExecutionReport::isSuccess).count(), reports.size());
+        return total;
+    }
+
+    private ExecutionReport build(HistoryConfig config) {
+        logger.info("Building {}", config.getRepositoryPath());
+        ExecutionReport report = new GitHistoryBuilder(config).build();
+        if (!report.isSuccess() && report.getRepositoryPath() == null) {
+            report.setRepositoryPath(config.getRepositoryPath());
+        }
+        return report;
+    }
+
+    private static ExecutionReport await(Future<ExecutionReport> build, HistoryConfig config) {
+        try {
+            return build.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(config, "Interrupted");
+        } catch (ExecutionException e) {
+            logger.error("Build of {} failed", config.getRepositoryPath(), e.getCause());
+            return failed(config, String.valueOf(e.getCause()));
+        }
+    }
+
+    private static ExecutionReport failed(HistoryConfig config, String errorMessage) {
+        ExecutionReport report = new ExecutionReport();
+        report.setRepositoryPath(config.getRepositoryPath());
+        report.setSuccess(false);
+        report.setErrorMessage(errorMessage);
+        return report;
+    }
+}
@@ -3,15 +3,37 @@ package com.github.historybuilder;
 import com.github.historybuilder.config.HistoryConfig;
 import com.github.historybuilder.config.ConfigurationValidator;
 import com.github.historybuilder.generator.*;
+import com.github.historybuilder.git.Checkpoint;
+import com.github.historybuilder.git.FastImportWriter;
 import com.github.historybuilder.git.GitRepositoryManager;
+import com.github.historybuilder.model.Author;
 import com.github.historybuilder.model.Commit;
 import com.github.historybuilder.model.DistributionPattern;
+import com.github.historybuilder.model.Durability;
+import com.github.historybuilder.model.WriteMode;
+import com.github.historybuilder.pattern.HeatmapFile;
+import com.github.historybuilder.tracking.BuildMetrics;
+import com.github.historybuilder.tracking.BuildMetrics.Phase;
+import com.github.historybuilder.tracking.ConsoleProgressBar;
 import com.github.historybuilder.tracking.ExecutionReport;
+import com.github.historybuilder.tracking.JsonLinesProgressListener;
+import com.github.historybuilder.tracking.LogProgressListener;
+import com.github.historybuilder.tracking.PlanStatistics;
 import com.github.historybuilder.tracking.ProgressTracker;
+import com.github.historybuilder.util.FileSync;
+import com.github.historybuilder.util.RandomSource;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main orchestrator for GitHub history generation.
@@ -21,10 +43,12 @@ public class GitHistoryBuilder {
 
     private HistoryConfig config;
     private ExecutionReport report;
+    private final BuildMetrics metrics = new BuildMetrics();
 
     public GitHistoryBuilder(HistoryConfig config) {
         this.config = config;
         this.report = new ExecutionReport();
+        this.report.setMetrics(metrics);
     }
 
     /**
@@ -40,30 +64,63 @@ public class GitHistoryBuilder {
             // Validate configuration
             ConfigurationValidator.validate(config);
 
-            // Generate commits
-            logger.info("Generating commits using {} pattern", config.getPattern());
-            List<Commit> commits = generateCommits();
+            HeatmapFile heatmap = config.getHeatmapFile() != null ? loadHeatmap() : null;
+
+            Checkpoint checkpoint = config.isResume() ? restorePlan() : null;
+            // A resumed extension already recorded its date range in the checkpoint
+            boolean upToDate = checkpoint == null && config.isExtend() && !planExtension();
+
+            // Fix the seed up front so the run can be reproduced from the log
+            if (config.getSeed() == null) {
+                config.setSeed(RandomSource.newSeed());
+            }
+            logger.info("Using seed {}", config.getSeed());
 
-            report.setTotalCommitsGenerated(commits.size());
             report.setStartDate(config.getStartDate());
             report.setEndDate(config.getEndDate());
 
-            if (config.isDryRun()) {
-                logger.info("DRY RUN MODE: Not creating repository");
-                logger.info("Would create {} commits", commits.size());
+            ContributionGenerator generator;
+            if (heatmap != null) {
+                generator = new HeatmapContributionGenerator(heatmap);
+                logger.info("Generating commits from heatmap {}", config.getHeatmapFile());
             } else {
-                // Create repository
-                GitRepositoryManager repoManager = new GitRepositoryManager();
-                repoManager.initializeRepository(config);
+                generator = createGenerator(config.getPattern());
+                logger.info("Generating commits using {} pattern", config.getPattern());
+            }
 
+            if (upToDate) {
+                logger.info("Repository is up to date, nothing to extend");
+                report.setRepositoryPath(Paths.get(config.getRepositoryPath()).toAbsolutePath().toString());
+            } else if (config.isDryRun()) {
+                logger.info("DRY RUN MODE: Not creating repository");
+                PlanStatistics statistics = new PlanStatistics(config.getStartDate(), config.getEndDate());
+                BuildMetrics.Timer planTimer = metrics.time(Phase.PLAN);
                 try {
-                    // Write commits
-                    repoManager.writeCommits(commits);
-
-                    report.setRepositoryPath(repoManager.getRepositoryDirectory().getAbsolutePath());
-                    logger.info("Repository created at: {}", report.getRepositoryPath());
+                    generator.generatePlan(config, statistics);
                 } finally {
-                    repoManager.close();
+                    planTimer.stop();
+                }
+                report.setTotalCommitsGenerated((int) statistics.getTotalCommits());
+                report.setTotalDaysWithCommits(statistics.getActiveDays());
+                statistics.logSummary();
+                logger.info("Would create {} commits", statistics.getTotalCommits());
+            } else {
+                // Generation runs ahead of the writer through a bounded queue
+                PlanStatistics statistics = new PlanStatistics(config.getStartDate(), config.getEndDate());
+                ProgressTracker progress = createProgressTracker();
+                try (CommitStream commits = new CommitStream(generator, config, config.getStreamQueueCapacity(),
+                        block -> {
+                            statistics.accept(block);
+                            progress.addPlanned(block.size());
+                        }).start()) {
+                    long written = config.getWriteMode() == WriteMode.FAST_IMPORT
+                            ? exportFastImport(commits, progress)
+                            : writeRepository(commits, checkpoint, progress);
+                    report.setTotalCommitsGenerated((int) written);
+                    report.setTotalDaysWithCommits(statistics.getActiveDays());
+                    metrics.addTime(Phase.PLAN, commits.getPlanningNanos());
+                } finally {
+                    progress.finish();
                 }
             }
 
@@ -76,17 +133,176 @@ public class GitHistoryBuilder {
         } finally {
             long endTime = System.currentTimeMillis();
             report.setExecutionTimeMs(endTime - startTime);
+            metrics.finish();
         }
 
+        if (config.getMetricsFile() != null) {
+            try {
+                metrics.write(Paths.get(config.getMetricsFile()), report.getRepositoryPath());
+            } catch (IOException e) {
+                logger.warn("Failed to write build metrics to {}: {}", config.getMetricsFile(), e.getMessage());
+            }
+        }
         return report;
     }
 
     /**
-     * Generates commits based on the configured pattern.
+     * Creates the progress tracker with the listener for the configured progress style.
+     */
+    private ProgressTracker createProgressTracker() throws IOException {
+        ProgressTracker progress = new ProgressTracker(config.getProgressIntervalMs(), TimeUnit.MILLISECONDS);
+        switch (config.getProgress()) {
+            case LOG:
+                progress.addListener(new LogProgressListener());
+                break;
+            case BAR:
+                progress.addListener(new ConsoleProgressBar());
+                break;
+            case JSON:
+                progress.addListener(config.getProgressFile() != null
+                        ? new JsonLinesProgressListener(Files.newOutputStream(Paths.get(config.getProgressFile())), true)
+                        : new JsonLinesProgressListener(System.err, false));
+                break;
+            case NONE:
+                break;
+        }
+        return progress;
+    }
+
+    /**
+     * Reads the configured heatmap and sets the date range to the days it covers.
+     */
+    private HeatmapFile loadHeatmap() throws IOException {
+        HeatmapFile heatmap = HeatmapFile.open(Paths.get(config.getHeatmapFile()));
+        config.setStartDate(heatmap.getStartDate());
+        config.setEndDate(heatmap.getEndDate());
+        logger.info("Heatmap {} has {} commits from {} to {}", config.getHeatmapFile(),
+                heatmap.getTotalCount(), heatmap.getStartDate(), heatmap.getEndDate());
+        return heatmap;
+    }
+
+    /**
+     * Restores the plan of the interrupted build recorded in the repository's checkpoint:
+     * its seed and date range, after checking that the other settings still match.
+     */
+    private Checkpoint restorePlan() throws IOException {
+        Checkpoint checkpoint = GitRepositoryManager.loadCheckpoint(config);
+        if (checkpoint == null) {
+            throw new IllegalStateException("No checkpoint to resume from in " + config.getRepositoryPath());
+        }
+        if (config.getSeed() != null && config.getSeed() != checkpoint.getSeed()) {
+            throw new IllegalStateException("Seed " + config.getSeed()
+                    + " does not match the checkpoint's seed " + checkpoint.getSeed());
+        }
+        if (!Checkpoint.fingerprint(config).equals(checkpoint.getFingerprint())) {
+            throw new IllegalStateException("Configuration differs from the interrupted build; "
+                    + "resume with the same settings and time zone");
+        }
+
+        config.setSeed(checkpoint.getSeed());
+        config.setStartDate(checkpoint.getStartDate());
+        config.setEndDate(checkpoint.getEndDate());
+        logger.info("Resuming plan {} to {} after {} commits", checkpoint.getStartDate(),
+                checkpoint.getEndDate(), checkpoint.getCommitsWritten());
+        return checkpoint;
+    }
+
+    /**
+     * Narrows the plan to the days after the repository's latest commit, up to the end date.
+     * @return false if the latest commit is already on or after the end date
+     */
+    private boolean planExtension() throws IOException {
+        ZonedDateTime lastCommit = GitRepositoryManager.readLastCommitTime(config);
+        if (lastCommit == null) {
+            throw new IllegalStateException("Repository has no commits to extend: " + config.getRepositoryPath());
+        }
+
+        // Commits are planned in the system time zone, so days are counted there too
+        LocalDate startDate = lastCommit.withZoneSameInstant(ZoneId.systemDefault()).toLocalDate().plusDays(1);
+        logger.info("Latest commit at {}", lastCommit);
+        if (startDate.isAfter(config.getEndDate())) {
+            return false;
+        }
+
+        config.setStartDate(startDate);
+        logger.info("Extending plan {} to {}", startDate, config.getEndDate());
+        return true;
+    }
+
+    /**
+     * Creates the repository, or reopens it at the checkpoint or to extend it, and writes
+     * the commits into it.
+     * @return the number of planned commits in the repository
+     */
+    private long writeRepository(CommitStream commits, Checkpoint checkpoint, ProgressTracker progress)
+            throws IOException, GitAPIException {
+        GitRepositoryManager repoManager = new GitRepositoryManager();
+        repoManager.setMetrics(metrics);
+        repoManager.setProgress(progress);
+        long resumed = 0;
+        if (checkpoint != null) {
+            // Replay the plan without creating the commits that are already written
+            resumed = commits.skip(checkpoint.getCommitsWritten());
+            if (resumed < checkpoint.getCommitsWritten()) {
+                throw new IllegalStateException("Plan has only " + resumed + " commits, checkpoint has "
+                        + checkpoint.getCommitsWritten());
+            }
+            progress.addSkipped(resumed);
+        }
+        BuildMetrics.Timer initializeTimer = metrics.time(Phase.INITIALIZE);
+        try {
+            if (checkpoint != null) {
+                repoManager.resumeRepository(config, checkpoint);
+            } else if (config.isExtend()) {
+                repoManager.extendRepository(config);
+            } else {
+                repoManager.initializeRepository(config);
+            }
+        } finally {
+            initializeTimer.stop();
+        }
+
+        try {
+            // Write commits
+            long written = resumed + repoManager.writeCommits(commits);
+            repoManager.finish();
+
+            report.setRepositoryPath(repoManager.getRepositoryDirectory().getAbsolutePath());
+            logger.info("Repository created at: {}", report.getRepositoryPath());
+            return written;
+        } finally {
+            repoManager.close();
+        }
+    }
+
+    /**
+     * Writes the commits as a git fast-import stream instead of creating a repository.
+     * A stream written to a file is synced to disk unless the durability profile is DEFAULT.
      */
-    private List<Commit> generateCommits() {
-        ContributionGenerator generator = createGenerator(config.getPattern());
-        return generator.generateCommits(config);
+    private long exportFastImport(Iterator<Commit> commits, ProgressTracker progress) throws IOException {
+        String output = config.getFastImportOutput();
+        long written;
+        try (FastImportWriter writer = FastImportWriter.open(output, "refs/heads/master")) {
+            writer.setMetrics(metrics);
+            writer.setProgress(progress);
+            writer.writeInitialCommit(new Author(config.getAuthorName(), config.getAuthorEmail()), ZonedDateTime.now());
+            written = writer.writeCommits(commits);
+            writer.finish();
+        }
+
+        if (!FastImportWriter.STDOUT.equals(output)) {
+            if (config.getDurability() != Durability.DEFAULT) {
+                BuildMetrics.Timer syncTimer = metrics.time(Phase.SYNC);
+                try {
+                    FileSync.sync(Paths.get(output));
+                } finally {
+                    syncTimer.stop();
+                }
+            }
+            report.setRepositoryPath(Paths.get(output).toAbsolutePath().toString());
+            logger.info("Fast-import stream written to: {}", report.getRepositoryPath());
+        }
+        return written;
     }
 
     /**
@@ -96,9 +312,11 @@ public class GitHistoryBuilder {
         switch (pattern) {
             case RANDOM:
                 return new RandomContributionGenerator();
-            case INTELLIGENT:
             case SEASONAL:
+                return new SeasonalContributionGenerator();
             case WEEKDAY_BIASED:
+                return new WeekdayBiasedContributionGenerator();
+            case INTELLIGENT:
             default:
                 return new IntelligentContributionGenerator();
         }
@@ -0,0 +1,93 @@
+package com.github.historybuilder.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One author of a multi-author history: identity, share of the commits and the
+ * hours and days the author is active.
+ */
+public class AuthorConfig {
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("email")
+    private String email;
+
+    @JsonProperty("weight")
+    private double weight = 1.0; // Share of the commits relative to the other authors
+
+    @JsonProperty("weekend_weight")
+    private double weekendWeight = 1.0; // Multiplier on weight for Saturdays and Sundays, 0 = never on weekends
+
+    @JsonProperty("first_hour")
+    private int firstHour = 0; // Earliest hour of day the author commits at
+
+    @JsonProperty("last_hour")
+    private int lastHour = 23; // Latest hour of day the author commits at
+
+    public AuthorConfig() {
+    }
+
+    public AuthorConfig(String name, String email) {
+        this.name = name;
+        this.email = email;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeekendWeight() {
+        return weekendWeight;
+    }
+
+    public void setWeekendWeight(double weekendWeight) {
+        this.weekendWeight = weekendWeight;
+    }
+
+    public int getFirstHour() {
+        return firstHour;
+    }
+
+    public void setFirstHour(int firstHour) {
+        this.firstHour = firstHour;
+    }
+
+    public int getLastHour() {
+        return lastHour;
+    }
+
+    public void setLastHour(int lastHour) {
+        this.lastHour = lastHour;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorConfig{" +
+                "name='" + name + '\'' +
+                ", email='" + email + '\'' +
+                ", weight=" + weight +
+                '}';
+    }
+}
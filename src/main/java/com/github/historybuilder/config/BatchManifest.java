@@ -0,0 +1,42 @@
+package com.github.historybuilder.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists the repositories of a batch run, each with its own configuration.
+ */
+public class BatchManifest {
+    @JsonProperty("parallelism")
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Repositories built at the same time
+
+    @JsonProperty("repositories")
+    private List<HistoryConfig> repositories = new ArrayList<>();
+
+    // Getters and Setters
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public List<HistoryConfig> getRepositories() {
+        return repositories;
+    }
+
+    public void setRepositories(List<HistoryConfig> repositories) {
+        this.repositories = repositories;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchManifest{" +
+                "parallelism=" + parallelism +
+                ", repositories=" + repositories.size() +
+                '}';
+    }
+}
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 
 /**
  * Loads configuration from YAML, JSON, or properties files.
@@ -54,6 +55,31 @@ public class ConfigurationLoader {
         return config;
     }
 
+    /**
+     * Loads a batch manifest from a YAML or JSON file. Entries without dates get the
+     * same defaults as a single configuration file.
+     */
+    public static BatchManifest loadManifest(String filePath) throws IOException {
+        logger.info("Loading batch manifest: {}", filePath);
+        ObjectMapper mapper = filePath.endsWith(".json") ? new ObjectMapper() : new ObjectMapper(new YAMLFactory());
+        BatchManifest manifest = mapper.readValue(new File(filePath), BatchManifest.class);
+        if (manifest.getRepositories() == null) {
+            manifest.setRepositories(new ArrayList<>());
+        }
+
+        for (HistoryConfig config : manifest.getRepositories()) {
+            if (config.getEndDate() == null) {
+                config.setEndDate(LocalDate.now());
+            }
+            if (config.getStartDate() == null) {
+                config.setStartDate(config.getEndDate().minusYears(config.getYearsBack()));
+            }
+        }
+
+        logger.info("Batch manifest loaded successfully: {}", manifest);
+        return manifest;
+    }
+
     /**
      * Creates a default configuration.
      */
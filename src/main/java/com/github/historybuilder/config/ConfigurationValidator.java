@@ -1,8 +1,16 @@
 package com.github.historybuilder.config;
 
+import com.github.historybuilder.git.FastImportWriter;
+import com.github.historybuilder.model.LogRotation;
+import com.github.historybuilder.model.WriteMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Validates configuration values.
  */
@@ -28,6 +36,18 @@ public class ConfigurationValidator {
             throw new IllegalArgumentException("Author email cannot be empty");
         }
 
+        if (config.getAuthors() == null) {
+            throw new IllegalArgumentException("Authors cannot be null");
+        }
+        for (AuthorConfig author : config.getAuthors()) {
+            validate(author);
+        }
+        // Weekend days still get their commits from the pattern, so someone has to author them
+        if (!config.getAuthors().isEmpty()
+                && config.getAuthors().stream().noneMatch(author -> author.getWeekendWeight() > 0)) {
+            throw new IllegalArgumentException("At least one author must have a positive weekend weight");
+        }
+
         if (config.getYearsBack() < 1) {
             throw new IllegalArgumentException("Years back must be at least 1");
         }
@@ -52,6 +72,92 @@ public class ConfigurationValidator {
             throw new IllegalArgumentException("Weekend probability reduction cannot be negative");
         }
 
+        if (config.getWriteMode() == null) {
+            throw new IllegalArgumentException("Write mode cannot be null");
+        }
+
+        if (config.getLogRotation() == null) {
+            throw new IllegalArgumentException("Log rotation cannot be null");
+        }
+
+        if (config.getBranchProbability() < 0 || config.getBranchProbability() > 1) {
+            throw new IllegalArgumentException("Branch probability must be between 0.0 and 1.0");
+        }
+
+        if (config.getBranchProbability() > 0) {
+            if (config.getBranchCommitsMin() < 1) {
+                throw new IllegalArgumentException("Branch commits minimum must be at least 1");
+            }
+            if (config.getBranchCommitsMax() < config.getBranchCommitsMin()) {
+                throw new IllegalArgumentException("Branch commits maximum must be >= minimum");
+            }
+            if (config.getMaxOpenBranches() < 1) {
+                throw new IllegalArgumentException("Max open branches must be at least 1");
+            }
+            if (config.getWriteMode() == WriteMode.WORKING_TREE) {
+                throw new IllegalArgumentException("Branches require the OBJECT_DATABASE, PACK, IN_MEMORY or FAST_IMPORT write mode");
+            }
+        }
+
+        if (config.getHeatmapFile() != null) {
+            if (config.getHeatmapFile().trim().isEmpty()) {
+                throw new IllegalArgumentException("Heatmap file cannot be empty");
+            }
+            if (config.getBranchProbability() > 0) {
+                throw new IllegalArgumentException("Merge commits would add to the heatmap's counts; "
+                        + "set branch_probability to 0");
+            }
+        }
+
+        if (config.isBare()
+                && (config.getWriteMode() == WriteMode.WORKING_TREE || config.getWriteMode() == WriteMode.FAST_IMPORT)) {
+            throw new IllegalArgumentException("Bare repositories require the OBJECT_DATABASE, PACK or IN_MEMORY write mode");
+        }
+
+        if (config.getWriteMode() == WriteMode.FAST_IMPORT
+                && (config.getFastImportOutput() == null || config.getFastImportOutput().trim().isEmpty())) {
+            throw new IllegalArgumentException("Fast-import output cannot be empty");
+        }
+
+        if (config.getWriteMode() == WriteMode.FAST_IMPORT && config.getLogRotation() == LogRotation.NONE) {
+            // Every commit re-sends its whole file, so one unrotated log makes the stream quadratic
+            logger.warn("FAST_IMPORT without log rotation writes a stream quadratic in the number of commits; "
+                    + "use log_rotation YEARLY or MONTHLY");
+        }
+
+        if (config.getPlanningThreads() < 1) {
+            throw new IllegalArgumentException("Planning threads must be at least 1");
+        }
+
+        if (config.getStreamQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Stream queue capacity must be at least 1");
+        }
+
+        if (config.getWriterThreads() < 1) {
+            throw new IllegalArgumentException("Writer threads must be at least 1");
+        }
+
+        if (config.getCheckpointInterval() < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+        }
+
+        if (config.getProgressIntervalMs() < 0) {
+            throw new IllegalArgumentException("Progress interval cannot be negative");
+        }
+
+        if (config.isResume()
+                && config.getWriteMode() != WriteMode.OBJECT_DATABASE && config.getWriteMode() != WriteMode.PACK) {
+            throw new IllegalArgumentException("Resuming requires the OBJECT_DATABASE or PACK write mode");
+        }
+
+        if (config.isExtend() && config.getWriteMode() == WriteMode.FAST_IMPORT) {
+            throw new IllegalArgumentException("Extending requires an existing repository, not a fast-import stream");
+        }
+
+        if (config.isExtend() && config.getWriteMode() == WriteMode.IN_MEMORY) {
+            throw new IllegalArgumentException("Extending writes into the existing repository; use OBJECT_DATABASE or PACK");
+        }
+
         if (config.getStartDate() != null && config.getEndDate() != null) {
             if (config.getStartDate().isAfter(config.getEndDate())) {
                 throw new IllegalArgumentException("Start date cannot be after end date");
@@ -60,5 +166,59 @@ public class ConfigurationValidator {
 
         logger.info("Configuration validation passed");
     }
-}
 
+    private static void validate(AuthorConfig author) {
+        if (author.getName() == null || author.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Pool author name cannot be empty");
+        }
+
+        if (author.getEmail() == null || author.getEmail().trim().isEmpty()) {
+            throw new IllegalArgumentException("Pool author email cannot be empty");
+        }
+
+        if (author.getWeight() <= 0) {
+            throw new IllegalArgumentException("Weight of " + author.getName() + " must be positive");
+        }
+
+        if (author.getWeekendWeight() < 0) {
+            throw new IllegalArgumentException("Weekend weight of " + author.getName() + " cannot be negative");
+        }
+
+        if (author.getFirstHour() < 0 || author.getLastHour() > 23 || author.getFirstHour() > author.getLastHour()) {
+            throw new IllegalArgumentException("Hours of " + author.getName() + " must satisfy 0 <= first_hour <= last_hour <= 23");
+        }
+    }
+
+    /**
+     * Validates a batch manifest and each of its entries. Entries are built side by side,
+     * so no two may write to the same repository or fast-import output.
+     * @throws IllegalArgumentException if the manifest or one of its entries is invalid
+     */
+    public static void validate(BatchManifest manifest) {
+        if (manifest.getParallelism() < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be at least 1");
+        }
+
+        if (manifest.getRepositories().isEmpty()) {
+            throw new IllegalArgumentException("Batch manifest lists no repositories");
+        }
+
+        Set<Path> targets = new HashSet<>();
+        for (HistoryConfig config : manifest.getRepositories()) {
+            validate(config);
+
+            String target;
+            if (config.getWriteMode() == WriteMode.FAST_IMPORT) {
+                if (FastImportWriter.STDOUT.equals(config.getFastImportOutput())) {
+                    throw new IllegalArgumentException("Batch entries cannot write fast-import streams to stdout");
+                }
+                target = config.getFastImportOutput();
+            } else {
+                target = config.getRepositoryPath();
+            }
+            if (!targets.add(Paths.get(target).toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("Batch manifest lists " + target + " more than once");
+            }
+        }
+    }
+}
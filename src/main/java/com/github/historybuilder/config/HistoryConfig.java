@@ -1,9 +1,15 @@
 package com.github.historybuilder.config;
 
 import com.github.historybuilder.model.DistributionPattern;
+import com.github.historybuilder.model.Durability;
+import com.github.historybuilder.model.LogRotation;
+import com.github.historybuilder.model.ProgressStyle;
+import com.github.historybuilder.model.WriteMode;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration for GitHub history generation.
@@ -15,6 +21,9 @@ public class HistoryConfig {
     @JsonProperty("author_email")
     private String authorEmail = "bot@example.com";
 
+    @JsonProperty("authors")
+    private List<AuthorConfig> authors = new ArrayList<>(); // Pool commits are spread over; empty = author_name/author_email only
+
     @JsonProperty("years_back")
     private int yearsBack = 5;
 
@@ -27,6 +36,9 @@ public class HistoryConfig {
     @JsonProperty("pattern")
     private DistributionPattern pattern = DistributionPattern.INTELLIGENT;
 
+    @JsonProperty("heatmap_file")
+    private String heatmapFile; // Exact commits per day (CSV or binary grid); replaces pattern and date range
+
     @JsonProperty("commits_per_day_min")
     private int commitsPerDayMin = 1;
 
@@ -42,9 +54,69 @@ public class HistoryConfig {
     @JsonProperty("weekend_probability_reduction")
     private double weekendProbabilityReduction = 0.5; // 50% less likely on weekends
 
+    @JsonProperty("branch_probability")
+    private double branchProbability = 0.0; // Chance a commit opens a feature branch, 0 = linear history
+
+    @JsonProperty("branch_commits_min")
+    private int branchCommitsMin = 2;
+
+    @JsonProperty("branch_commits_max")
+    private int branchCommitsMax = 5;
+
+    @JsonProperty("max_open_branches")
+    private int maxOpenBranches = 2; // Feature branches in progress at the same time
+
     @JsonProperty("repository_path")
     private String repositoryPath = "./generated-github-repo";
 
+    @JsonProperty("write_mode")
+    private WriteMode writeMode = WriteMode.WORKING_TREE;
+
+    @JsonProperty("fast_import_output")
+    private String fastImportOutput = "-"; // File path, or "-" for stdout
+
+    @JsonProperty("log_rotation")
+    private LogRotation logRotation = LogRotation.NONE; // NONE: per-commit cost grows with the log
+
+    @JsonProperty("bare")
+    private boolean bare = false; // Only supported with OBJECT_DATABASE
+
+    @JsonProperty("seed")
+    private Long seed; // Random when not set; the same seed always produces the same plan
+
+    @JsonProperty("planning_threads")
+    private int planningThreads = Runtime.getRuntime().availableProcessors();
+
+    @JsonProperty("stream_queue_capacity")
+    private int streamQueueCapacity = 4; // Planned partitions buffered between generator and writer
+
+    @JsonProperty("writer_threads")
+    private int writerThreads = 1; // Threads hashing and compressing objects (OBJECT_DATABASE and PACK)
+
+    @JsonProperty("checkpoint_interval")
+    private int checkpointInterval = 10000; // Commits between checkpoints (WORKING_TREE, OBJECT_DATABASE and PACK), 0 = off
+
+    @JsonProperty("durability")
+    private Durability durability = Durability.DEFAULT;
+
+    @JsonProperty("resume")
+    private boolean resume = false; // Continue from the repository's last checkpoint
+
+    @JsonProperty("extend")
+    private boolean extend = false; // Add the days after the repository's latest commit on top of it
+
+    @JsonProperty("metrics_file")
+    private String metricsFile; // Build metrics output; .json for JSON, otherwise Prometheus text format
+
+    @JsonProperty("progress")
+    private ProgressStyle progress = ProgressStyle.LOG;
+
+    @JsonProperty("progress_interval_ms")
+    private long progressIntervalMs = 1000; // At most one progress report per interval
+
+    @JsonProperty("progress_file")
+    private String progressFile; // JSON progress lines go here instead of stderr
+
     @JsonProperty("dry_run")
     private boolean dryRun = false;
 
@@ -68,6 +140,14 @@ public class HistoryConfig {
         this.authorEmail = authorEmail;
     }
 
+    public List<AuthorConfig> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<AuthorConfig> authors) {
+        this.authors = authors;
+    }
+
     public int getYearsBack() {
         return yearsBack;
     }
@@ -100,6 +180,14 @@ public class HistoryConfig {
         this.pattern = pattern;
     }
 
+    public String getHeatmapFile() {
+        return heatmapFile;
+    }
+
+    public void setHeatmapFile(String heatmapFile) {
+        this.heatmapFile = heatmapFile;
+    }
+
     public int getCommitsPerDayMin() {
         return commitsPerDayMin;
     }
@@ -140,6 +228,38 @@ public class HistoryConfig {
         this.weekendProbabilityReduction = weekendProbabilityReduction;
     }
 
+    public double getBranchProbability() {
+        return branchProbability;
+    }
+
+    public void setBranchProbability(double branchProbability) {
+        this.branchProbability = branchProbability;
+    }
+
+    public int getBranchCommitsMin() {
+        return branchCommitsMin;
+    }
+
+    public void setBranchCommitsMin(int branchCommitsMin) {
+        this.branchCommitsMin = branchCommitsMin;
+    }
+
+    public int getBranchCommitsMax() {
+        return branchCommitsMax;
+    }
+
+    public void setBranchCommitsMax(int branchCommitsMax) {
+        this.branchCommitsMax = branchCommitsMax;
+    }
+
+    public int getMaxOpenBranches() {
+        return maxOpenBranches;
+    }
+
+    public void setMaxOpenBranches(int maxOpenBranches) {
+        this.maxOpenBranches = maxOpenBranches;
+    }
+
     public String getRepositoryPath() {
         return repositoryPath;
     }
@@ -148,6 +268,134 @@ public class HistoryConfig {
         this.repositoryPath = repositoryPath;
     }
 
+    public WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    public void setWriteMode(WriteMode writeMode) {
+        this.writeMode = writeMode;
+    }
+
+    public String getFastImportOutput() {
+        return fastImportOutput;
+    }
+
+    public void setFastImportOutput(String fastImportOutput) {
+        this.fastImportOutput = fastImportOutput;
+    }
+
+    public LogRotation getLogRotation() {
+        return logRotation;
+    }
+
+    public void setLogRotation(LogRotation logRotation) {
+        this.logRotation = logRotation;
+    }
+
+    public boolean isBare() {
+        return bare;
+    }
+
+    public void setBare(boolean bare) {
+        this.bare = bare;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public int getPlanningThreads() {
+        return planningThreads;
+    }
+
+    public void setPlanningThreads(int planningThreads) {
+        this.planningThreads = planningThreads;
+    }
+
+    public int getStreamQueueCapacity() {
+        return streamQueueCapacity;
+    }
+
+    public void setStreamQueueCapacity(int streamQueueCapacity) {
+        this.streamQueueCapacity = streamQueueCapacity;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public boolean isExtend() {
+        return extend;
+    }
+
+    public void setExtend(boolean extend) {
+        this.extend = extend;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public ProgressStyle getProgress() {
+        return progress;
+    }
+
+    public void setProgress(ProgressStyle progress) {
+        this.progress = progress;
+    }
+
+    public long getProgressIntervalMs() {
+        return progressIntervalMs;
+    }
+
+    public void setProgressIntervalMs(long progressIntervalMs) {
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
+    public String getProgressFile() {
+        return progressFile;
+    }
+
+    public void setProgressFile(String progressFile) {
+        this.progressFile = progressFile;
+    }
+
     public boolean isDryRun() {
         return dryRun;
     }
@@ -171,6 +419,8 @@ public class HistoryConfig {
                 ", authorEmail='" + authorEmail + '\'' +
                 ", yearsBack=" + yearsBack +
                 ", pattern=" + pattern +
+                ", writeMode=" + writeMode +
+                ", seed=" + seed +
                 ", repositoryPath='" + repositoryPath + '\'' +
                 '}';
     }
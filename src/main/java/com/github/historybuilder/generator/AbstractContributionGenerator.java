@@ -0,0 +1,125 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.CommitPlan;
+import com.github.historybuilder.model.DistributionPattern;
+import com.github.historybuilder.model.PlanDictionary;
+import com.github.historybuilder.pattern.CalendarIntensityTable;
+import com.github.historybuilder.util.DateUtil;
+import com.github.historybuilder.util.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Base class for generators that walk the date range day by day and only differ
+ * in the distribution pattern that sets how likely each day is to have commits.
+ * The pattern is evaluated once for the whole range into a {@link CalendarIntensityTable}.
+ */
+public abstract class AbstractContributionGenerator implements ContributionGenerator {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Override
+    public void generatePlan(HistoryConfig config, PlanSink sink) {
+        CalendarIntensityTable calendar = CalendarIntensityTable.build(getPattern(), config,
+                config.getStartDate(), config.getEndDate());
+        long generated = plan(config, (day, random) -> getCommitsForDay(calendar, day, config, random), sink);
+
+        logger.info("Generated {} commits using {} distribution", generated, getPattern());
+    }
+
+    /**
+     * Plans the configured range with the given number of commits per day.
+     * @return the number of planned commits
+     */
+    static long plan(HistoryConfig config, DailyCommits days, PlanSink sink) {
+        // Sampled message ids index straight into the dictionary
+        PlanDictionary dictionary = new PlanDictionary(CommitMessageGenerator.getMessages(),
+                CommitMessageGenerator.getEncodedMessages());
+        AuthorPool authors = AuthorPool.of(config, dictionary);
+        PartitionedPlanner planner = new PartitionedPlanner(config.getPlanningThreads());
+
+        long seed = config.getSeed() != null ? config.getSeed() : RandomSource.newSeed();
+        return planner.plan(config, seed, dictionary,
+                (partition, random, out) -> planPartition(partition, config, days, authors, random, out), sink);
+    }
+
+    /**
+     * Walks one partition day by day. Runs on a planner worker and must only draw
+     * from the given random stream.
+     */
+    static void planPartition(DatePartition partition, HistoryConfig config, DailyCommits days,
+                              AuthorPool authors, RandomSource random, CommitPlan out) {
+        PlanDictionary dictionary = out.getDictionary();
+        ZoneId zone = ZoneId.systemDefault();
+        BranchPlanner branches = new BranchPlanner(config, dictionary);
+
+        LocalDate current = partition.getStartDate();
+        int day = (int) (current.toEpochDay() - config.getStartDate().toEpochDay());
+        while (!current.isAfter(partition.getEndDate())) {
+            int commitCount = days.getCommits(day, random);
+            int pathId = dictionary.internPath(config.getLogRotation().resolvePath(current));
+            boolean weekend = DateUtil.isWeekend(current);
+
+            for (int i = 0; i < commitCount; i++) {
+                int author = authors.pick(weekend, random);
+                ZonedDateTime timestamp = current
+                        .atTime(random.nextInt(authors.getFirstHour(author), authors.getLastHour(author)),
+                                random.nextInt(0, 59), 0)
+                        .atZone(zone);
+                int messageId = CommitMessageGenerator.nextMessageId(random);
+                int logSecond = FileContentGenerator.nextLogSecond(random);
+
+                branches.append(out, current, timestamp.toEpochSecond(), timestamp.getOffset().getTotalSeconds() / 60,
+                        messageId, authors.getAuthorId(author), pathId, logSecond, random);
+            }
+
+            current = current.plusDays(1);
+            day++;
+        }
+        branches.mergeAll(out);
+    }
+
+    /**
+     * Gets the number of commits for a day of the calendar: whether the day has
+     * commits at all, then how many, times the day's burst multiplier.
+     */
+    static int getCommitsForDay(CalendarIntensityTable calendar, int day, HistoryConfig config,
+                                RandomSource random) {
+        if (random.nextBoolean(calendar.getProbability(day))) {
+            int baseCommits = random.nextInt(config.getCommitsPerDayMin(), config.getCommitsPerDayMax());
+            return (int) (baseCommits * calendar.getBurst(day));
+        }
+        return 0;
+    }
+
+    /**
+     * Evaluates the pattern for a single date. Planning reads the table built for the
+     * whole range instead.
+     */
+    @Override
+    public int getCommitsForDate(LocalDate date, HistoryConfig config, RandomSource random) {
+        CalendarIntensityTable calendar = CalendarIntensityTable.build(getPattern(), config, date, date);
+        return getCommitsForDay(calendar, 0, config, random);
+    }
+
+    /**
+     * Gets the distribution pattern this generator places commits with.
+     */
+    protected abstract DistributionPattern getPattern();
+
+    /**
+     * Number of commits on each day of the configured range.
+     */
+    @FunctionalInterface
+    interface DailyCommits {
+        /**
+         * Gets the number of commits of the day at an index from the start date.
+         * Runs on a planner worker and must only draw from the given random stream.
+         */
+        int getCommits(int day, RandomSource random);
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.AuthorConfig;
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.Author;
+import com.github.historybuilder.model.PlanDictionary;
+import com.github.historybuilder.util.RandomSource;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Authors a plan attributes its commits to, interned once as dictionary ids.
+ * Picking an author for a commit is one draw and a binary search over the cumulative
+ * weights of the day type; a pool of one author draws nothing, so single-author
+ * plans keep their random sequence.
+ */
+final class AuthorPool {
+    private final int[] authorIds;
+    private final int[] firstHours;
+    private final int[] lastHours;
+    private final double[] weekdayWeights;
+    private final double[] weekendWeights;
+
+    private AuthorPool(List<AuthorConfig> authors, PlanDictionary dictionary) {
+        int size = authors.size();
+        authorIds = new int[size];
+        firstHours = new int[size];
+        lastHours = new int[size];
+        weekdayWeights = new double[size];
+        weekendWeights = new double[size];
+
+        double weekday = 0;
+        double weekend = 0;
+        for (int i = 0; i < size; i++) {
+            AuthorConfig author = authors.get(i);
+            authorIds[i] = dictionary.internAuthor(new Author(author.getName(), author.getEmail()));
+            firstHours[i] = author.getFirstHour();
+            lastHours[i] = author.getLastHour();
+            weekday += author.getWeight();
+            weekend += author.getWeight() * author.getWeekendWeight();
+            weekdayWeights[i] = weekday;
+            weekendWeights[i] = weekend;
+        }
+    }
+
+    /**
+     * Creates the pool of the configured authors, or of the single configured author
+     * when no pool is given.
+     */
+    static AuthorPool of(HistoryConfig config, PlanDictionary dictionary) {
+        List<AuthorConfig> authors = config.getAuthors().isEmpty()
+                ? Collections.singletonList(new AuthorConfig(config.getAuthorName(), config.getAuthorEmail()))
+                : config.getAuthors();
+        return new AuthorPool(authors, dictionary);
+    }
+
+    /**
+     * Picks the author of the next commit on a weekday or weekend day. The validator
+     * makes sure both kinds of day have someone with a positive weight.
+     * @return the author's index in the pool
+     */
+    int pick(boolean weekend, RandomSource random) {
+        double[] cumulative = weekend ? weekendWeights : weekdayWeights;
+        double total = cumulative[cumulative.length - 1];
+        if (cumulative.length == 1) {
+            return 0;
+        }
+
+        double target = random.nextDouble() * total;
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    int getAuthorId(int index) {
+        return authorIds[index];
+    }
+
+    int getFirstHour(int index) {
+        return firstHours[index];
+    }
+
+    int getLastHour(int index) {
+        return lastHours[index];
+    }
+}
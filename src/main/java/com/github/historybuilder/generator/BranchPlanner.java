@@ -0,0 +1,111 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.CommitPlan;
+import com.github.historybuilder.model.PlanDictionary;
+import com.github.historybuilder.util.RandomSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays feature branches over the commits of one partition. Each planned commit either
+ * continues the mainline or goes to one of the open branches; a commit opens a new
+ * branch with the configured probability, and a branch is merged into the mainline
+ * once it has used up its commits. Branches never outlive their partition, so
+ * partitions are still planned independently.
+ */
+final class BranchPlanner {
+    /**
+     * Seconds between the last commit of a branch and its merge.
+     */
+    private static final int MERGE_DELAY_SECONDS = 60;
+
+    private final PlanDictionary dictionary;
+    private final double probability;
+    private final int commitsMin;
+    private final int commitsMax;
+    private final int maxOpen;
+    private final List<OpenBranch> open = new ArrayList<>();
+    private int opened;
+
+    BranchPlanner(HistoryConfig config, PlanDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.probability = config.getBranchProbability();
+        this.commitsMin = config.getBranchCommitsMin();
+        this.commitsMax = config.getBranchCommitsMax();
+        this.maxOpen = config.getMaxOpenBranches();
+    }
+
+    /**
+     * Appends a commit to the lane drawn for it, followed by the merge of its branch if
+     * this was the branch's last commit. Without branches nothing is drawn, so linear
+     * plans keep their random sequence.
+     */
+    void append(CommitPlan out, LocalDate date, long epochSecond, int offsetMinutes, int messageId,
+                int authorId, int pathId, int logSecond, RandomSource random) {
+        OpenBranch branch = probability > 0 ? pickBranch(date, random) : null;
+        if (branch == null) {
+            out.append(epochSecond, offsetMinutes, messageId, authorId, pathId, logSecond);
+            return;
+        }
+
+        out.appendOnBranch(epochSecond, offsetMinutes, messageId, authorId, pathId, logSecond, branch.id);
+        branch.lastEpochSecond = epochSecond;
+        branch.lastOffsetMinutes = offsetMinutes;
+        branch.lastAuthorId = authorId;
+        if (--branch.remaining == 0) {
+            open.remove(branch);
+            merge(out, branch);
+        }
+    }
+
+    /**
+     * Merges the branches still open at the end of the partition, oldest first.
+     */
+    void mergeAll(CommitPlan out) {
+        for (OpenBranch branch : open) {
+            merge(out, branch);
+        }
+        open.clear();
+    }
+
+    private OpenBranch pickBranch(LocalDate date, RandomSource random) {
+        if (open.size() < maxOpen && random.nextBoolean(probability)) {
+            OpenBranch branch = new OpenBranch(dictionary.internBranch("feature/" + date + "-" + ++opened),
+                    random.nextInt(commitsMin, commitsMax));
+            open.add(branch);
+            return branch;
+        }
+        if (open.isEmpty()) {
+            return null;
+        }
+
+        // The mainline and each open branch are equally likely to get the commit
+        int lane = random.nextInt(0, open.size());
+        return lane == 0 ? null : open.get(lane - 1);
+    }
+
+    private void merge(CommitPlan out, OpenBranch branch) {
+        int messageId = dictionary.internMessage("Merge branch '" + dictionary.getBranch(branch.id) + "'");
+        out.appendMerge(branch.lastEpochSecond + MERGE_DELAY_SECONDS, branch.lastOffsetMinutes, messageId,
+                branch.lastAuthorId, branch.id);
+    }
+
+    /**
+     * A branch with commits still to come.
+     */
+    private static final class OpenBranch {
+        private final int id;
+        private int remaining;
+        private long lastEpochSecond;
+        private int lastOffsetMinutes;
+        private int lastAuthorId;
+
+        OpenBranch(int id, int remaining) {
+            this.id = id;
+            this.remaining = remaining;
+        }
+    }
+}
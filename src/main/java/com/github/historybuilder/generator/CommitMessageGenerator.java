@@ -1,9 +1,14 @@
 package com.github.historybuilder.generator;
 
-import com.github.historybuilder.util.RandomUtil;
+import com.github.historybuilder.util.RandomSource;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * Generates realistic commit messages.
+ * Every message this class can produce is built once into an indexed dictionary of
+ * strings and their UTF-8 encodings. Sampling returns a message id, so planning and
+ * writing a commit never concatenate or encode its message.
  */
 public class CommitMessageGenerator {
 
@@ -72,36 +77,130 @@ public class CommitMessageGenerator {
         "in helper module"
     };
 
+    private static final String[] EMOJIS = {"✨", "🐛", "♻️", "📝", "🔧", "⚡", "📦", "🚀"};
+
+    /**
+     * Categories followed by a module, in message type order. All have the same size.
+     */
+    private static final String[][] PREFIXED = {FEATURES, FIXES, REFACTORS};
+    private static final int PREFIXES = FEATURES.length;
+    private static final int FIRST_DOC = PREFIXED.length * PREFIXES * MODULES.length;
+
+    /**
+     * Number of messages without emoji: each prefix with every module, plus docs.
+     */
+    private static final int PLAIN_COUNT = FIRST_DOC + DOCS.length;
+
+    private static final String[] MESSAGES = new String[PLAIN_COUNT * (EMOJIS.length + 1)];
+    private static final byte[][] ENCODED = new byte[MESSAGES.length][];
+
+    static {
+        int id = 0;
+        for (String[] category : PREFIXED) {
+            for (String prefix : category) {
+                for (String module : MODULES) {
+                    MESSAGES[id++] = prefix + " " + module;
+                }
+            }
+        }
+        for (String doc : DOCS) {
+            MESSAGES[id++] = doc;
+        }
+        // Emoji variants follow in blocks of PLAIN_COUNT, one block per emoji
+        for (String emoji : EMOJIS) {
+            for (int plain = 0; plain < PLAIN_COUNT; plain++) {
+                MESSAGES[id++] = emoji + " " + MESSAGES[plain];
+            }
+        }
+        for (int i = 0; i < MESSAGES.length; i++) {
+            ENCODED[i] = MESSAGES[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     /**
      * Generates a random commit message.
      */
     public static String generateCommitMessage() {
-        int messageType = RandomUtil.nextInt(0, 3);
-
-        switch (messageType) {
-            case 0: // Feature
-                return FEATURES[RandomUtil.nextInt(0, FEATURES.length - 1)] +
-                       " " + MODULES[RandomUtil.nextInt(0, MODULES.length - 1)];
-            case 1: // Fix
-                return FIXES[RandomUtil.nextInt(0, FIXES.length - 1)] +
-                       " " + MODULES[RandomUtil.nextInt(0, MODULES.length - 1)];
-            case 2: // Refactor
-                return REFACTORS[RandomUtil.nextInt(0, REFACTORS.length - 1)] +
-                       " " + MODULES[RandomUtil.nextInt(0, MODULES.length - 1)];
-            case 3: // Docs
-                return DOCS[RandomUtil.nextInt(0, DOCS.length - 1)];
-            default:
-                return "Update code";
-        }
+        return generateCommitMessage(RandomSource.current());
+    }
+
+    /**
+     * Generates a random commit message from a partition's own random stream.
+     */
+    public static String generateCommitMessage(RandomSource random) {
+        return MESSAGES[nextMessageId(random)];
     }
 
     /**
      * Generates a commit message with emoji prefix for variety.
      */
     public static String generateCommitMessageWithEmoji() {
-        String[] emojis = {"✨", "🐛", "♻️", "📝", "🔧", "⚡", "📦", "🚀"};
-        String emoji = emojis[RandomUtil.nextInt(0, emojis.length - 1)];
-        return emoji + " " + generateCommitMessage();
+        return generateCommitMessageWithEmoji(RandomSource.current());
     }
-}
 
+    /**
+     * Generates a commit message with emoji prefix from a partition's own random stream.
+     */
+    public static String generateCommitMessageWithEmoji(RandomSource random) {
+        return MESSAGES[nextMessageIdWithEmoji(random)];
+    }
+
+    /**
+     * Samples a message and returns its dictionary id.
+     */
+    public static int nextMessageId(RandomSource random) {
+        int messageType = random.nextInt(0, 3);
+
+        if (messageType == 3) { // Docs
+            return FIRST_DOC + random.nextInt(0, DOCS.length - 1);
+        }
+        // Feature, fix or refactor, followed by a module
+        int prefix = random.nextInt(0, PREFIXED[messageType].length - 1);
+        int module = random.nextInt(0, MODULES.length - 1);
+        return (messageType * PREFIXES + prefix) * MODULES.length + module;
+    }
+
+    /**
+     * Samples a message with emoji prefix and returns its dictionary id.
+     */
+    public static int nextMessageIdWithEmoji(RandomSource random) {
+        int emoji = random.nextInt(0, EMOJIS.length - 1);
+        return PLAIN_COUNT * (emoji + 1) + nextMessageId(random);
+    }
+
+    /**
+     * Gets the message with the given id.
+     */
+    public static String getMessage(int id) {
+        return MESSAGES[id];
+    }
+
+    /**
+     * Gets the UTF-8 encoding of the message with the given id. The array is shared
+     * and must not be modified.
+     */
+    public static byte[] getEncodedMessage(int id) {
+        return ENCODED[id];
+    }
+
+    /**
+     * Gets the number of messages in the dictionary; ids run from 0 to this count - 1.
+     */
+    public static int getMessageCount() {
+        return MESSAGES.length;
+    }
+
+    /**
+     * Gets all messages in id order. The array is a copy.
+     */
+    public static String[] getMessages() {
+        return MESSAGES.clone();
+    }
+
+    /**
+     * Gets the UTF-8 encodings of all messages in id order. The outer array is a copy.
+     */
+    public static byte[][] getEncodedMessages() {
+        return ENCODED.clone();
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.model.Commit;
+
+/**
+ * Receives commits as a generator produces them, in date order.
+ */
+@FunctionalInterface
+public interface CommitSink {
+
+    /**
+     * Accepts the next generated commit.
+     */
+    void accept(Commit commit);
+}
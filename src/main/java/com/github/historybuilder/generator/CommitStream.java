@@ -0,0 +1,164 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.Commit;
+import com.github.historybuilder.model.CommitPlan;
+import com.github.historybuilder.model.PlanDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Runs a generator on a background thread and hands its commits to the consumer
+ * through a bounded queue. Writing starts while later days are still being planned.
+ * The queue carries compact plan blocks, at most {@code capacity} of them; each
+ * {@link Commit} is only created when the consumer asks for it.
+ */
+public class CommitStream implements Iterator<Commit>, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CommitStream.class);
+    private static final CommitPlan END_OF_STREAM = new CommitPlan(new PlanDictionary(), 0);
+
+    private final BlockingQueue<CommitPlan> queue;
+    private final Thread producer;
+    private final PlanSink observer;
+    private volatile Throwable failure;
+    private volatile long planningNanos;
+    private long blockedNanos;
+    private CommitPlan block;
+    private int position;
+    private boolean finished;
+
+    public CommitStream(ContributionGenerator generator, HistoryConfig config, int capacity) {
+        this(generator, config, capacity, null);
+    }
+
+    /**
+     * Creates a stream that also shows every planned block to an observer, e.g. to
+     * collect {@code PlanStatistics}. The observer runs on the generator thread; what
+     * it records is visible to the consumer once the stream has ended.
+     */
+    public CommitStream(ContributionGenerator generator, HistoryConfig config, int capacity, PlanSink observer) {
+        this.observer = observer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.producer = new Thread(() -> produce(generator, config), "commit-generator");
+        this.producer.setDaemon(true);
+    }
+
+    /**
+     * Starts generating in the background.
+     */
+    public CommitStream start() {
+        producer.start();
+        return this;
+    }
+
+    private void produce(ContributionGenerator generator, HistoryConfig config) {
+        long start = System.nanoTime();
+        try {
+            generator.generatePlan(config, this::enqueue);
+            // Time spent waiting for the consumer to make room is not planning
+            planningNanos = System.nanoTime() - start - blockedNanos;
+        } catch (CancellationException e) {
+            logger.debug("Commit generation cancelled");
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            try {
+                queue.put(END_OF_STREAM);
+            } catch (InterruptedException e) {
+                // Consumer is gone; nobody is waiting for the end marker
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void enqueue(CommitPlan planned) {
+        if (observer != null) {
+            observer.accept(planned);
+        }
+        long start = System.nanoTime();
+        try {
+            queue.put(planned);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Commit stream closed");
+        }
+        blockedNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (block == null || position == block.size()) {
+            if (finished) {
+                return false;
+            }
+            try {
+                block = queue.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for commits");
+            }
+
+            if (block == END_OF_STREAM) {
+                block = null;
+                finished = true;
+                if (failure != null) {
+                    throw new IllegalStateException("Commit generation failed: " + failure.getMessage(), failure);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Commit next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return block.toCommit(position++, FileContentGenerator::formatLogLine);
+    }
+
+    /**
+     * Gets the time the generator spent planning, excluding the time it waited for the
+     * consumer. Only known once the stream has ended, 0 before.
+     */
+    public long getPlanningNanos() {
+        return planningNanos;
+    }
+
+    /**
+     * Skips planned commits without creating them, e.g. those a resumed build has
+     * already written.
+     * @return the number of commits skipped, less than requested if the plan ends first
+     */
+    public long skip(long count) {
+        long skipped = 0;
+        while (skipped < count && hasNext()) {
+            int step = (int) Math.min(block.size() - position, count - skipped);
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    /**
+     * Stops the producer if it is still running.
+     */
+    @Override
+    public void close() {
+        if (producer.isAlive()) {
+            producer.interrupt();
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -2,7 +2,11 @@ package com.github.historybuilder.generator;
 
 import com.github.historybuilder.model.Commit;
 import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.CommitPlan;
+import com.github.historybuilder.model.PlanDictionary;
+import com.github.historybuilder.util.RandomSource;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,14 +14,51 @@ import java.util.List;
  */
 public interface ContributionGenerator {
 
+    /**
+     * Plans commits for the given date range and hands them to the sink in compact
+     * blocks as soon as each block is planned, without keeping the history in memory.
+     */
+    void generatePlan(HistoryConfig config, PlanSink sink);
+
+    /**
+     * Plans the whole date range into a single compact plan.
+     */
+    default CommitPlan generatePlan(HistoryConfig config) {
+        long baseEpochSecond = config.getStartDate().toEpochDay() * 86_400L;
+        CommitPlan[] plan = new CommitPlan[1];
+        generatePlan(config, block -> {
+            if (plan[0] == null) {
+                plan[0] = new CommitPlan(block.getDictionary(), baseEpochSecond);
+            }
+            plan[0].appendAll(block);
+        });
+        return plan[0] != null ? plan[0] : new CommitPlan(new PlanDictionary(), baseEpochSecond);
+    }
+
+    /**
+     * Generates commits for the given date range and hands each one to the sink
+     * as soon as it is created, without keeping the history in memory.
+     */
+    default void generateCommits(HistoryConfig config, CommitSink sink) {
+        generatePlan(config, block -> {
+            for (int i = 0; i < block.size(); i++) {
+                sink.accept(block.toCommit(i, FileContentGenerator::formatLogLine));
+            }
+        });
+    }
+
     /**
      * Generates commits for the given date range according to configuration.
      */
-    List<Commit> generateCommits(HistoryConfig config);
+    default List<Commit> generateCommits(HistoryConfig config) {
+        List<Commit> commits = new ArrayList<>();
+        generateCommits(config, commits::add);
+        return commits;
+    }
 
     /**
-     * Gets the number of commits to create for a given date.
+     * Gets the number of commits to create for a given date, drawing from the
+     * random stream of the partition being planned.
      */
-    int getCommitsForDate(LocalDate date, HistoryConfig config);
+    int getCommitsForDate(LocalDate date, HistoryConfig config, RandomSource random);
 }
-
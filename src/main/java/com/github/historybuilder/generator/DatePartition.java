@@ -0,0 +1,56 @@
+package com.github.historybuilder.generator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous slice of the generation date range that is planned as one unit.
+ */
+public final class DatePartition {
+    private final int index;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    public DatePartition(int index, LocalDate startDate, LocalDate endDate) {
+        this.index = index;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Splits the inclusive range into one partition per calendar year.
+     */
+    public static List<DatePartition> byYear(LocalDate startDate, LocalDate endDate) {
+        List<DatePartition> partitions = new ArrayList<>();
+        LocalDate current = startDate;
+        while (!current.isAfter(endDate)) {
+            LocalDate yearEnd = current.withDayOfYear(current.lengthOfYear());
+            LocalDate partitionEnd = yearEnd.isBefore(endDate) ? yearEnd : endDate;
+            partitions.add(new DatePartition(partitions.size(), current, partitionEnd));
+            current = partitionEnd.plusDays(1);
+        }
+        return partitions;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    @Override
+    public String toString() {
+        return "DatePartition{" +
+                "index=" + index +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                '}';
+    }
+}
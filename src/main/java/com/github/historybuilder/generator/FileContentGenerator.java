@@ -1,6 +1,6 @@
 package com.github.historybuilder.generator;
 
-import com.github.historybuilder.util.RandomUtil;
+import com.github.historybuilder.util.RandomSource;
 
 /**
  * Generates file content for commits.
@@ -24,18 +24,47 @@ public class FileContentGenerator {
             "// Fix for issue #42\nbugFixed = true;"
         };
 
-        return contents[RandomUtil.nextInt(0, contents.length - 1)];
+        return contents[RandomSource.current().nextInt(0, contents.length - 1)];
     }
 
     /**
      * Generates a line to append to a contribution log file.
      */
     public static String generateLogLine(java.time.LocalDate date) {
-        return String.format("Contribution on %s at %02d:%02d:%02d%n",
-                date,
-                RandomUtil.nextInt(0, 23),
-                RandomUtil.nextInt(0, 59),
-                RandomUtil.nextInt(0, 59));
+        return generateLogLine(date, RandomSource.current());
+    }
+
+    /**
+     * Generates a log line drawing from a partition's own random stream.
+     */
+    public static String generateLogLine(java.time.LocalDate date, RandomSource random) {
+        return formatLogLine(date, nextLogSecond(random));
     }
-}
 
+    /**
+     * Draws the time of day written into a log line, as seconds since midnight.
+     * Draws the same values as {@link #generateLogLine(java.time.LocalDate, RandomSource)}.
+     */
+    public static int nextLogSecond(RandomSource random) {
+        int hour = random.nextInt(0, 23);
+        int minute = random.nextInt(0, 59);
+        int second = random.nextInt(0, 59);
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Formats the log line for a date and time of day.
+     */
+    public static String formatLogLine(java.time.LocalDate date, int secondOfDay) {
+        StringBuilder line = new StringBuilder(48)
+                .append("Contribution on ").append(date).append(" at ");
+        appendTwoDigits(line, secondOfDay / 3600).append(':');
+        appendTwoDigits(line, secondOfDay / 60 % 60).append(':');
+        appendTwoDigits(line, secondOfDay % 60);
+        return line.append(System.lineSeparator()).toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.pattern.HeatmapFile;
+import com.github.historybuilder.util.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+
+/**
+ * Places exactly the number of commits a target heatmap gives for each day.
+ * Only the times, authors and messages of the commits are drawn at random.
+ */
+public class HeatmapContributionGenerator implements ContributionGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(HeatmapContributionGenerator.class);
+
+    private final HeatmapFile heatmap;
+
+    public HeatmapContributionGenerator(HeatmapFile heatmap) {
+        this.heatmap = heatmap;
+    }
+
+    @Override
+    public void generatePlan(HistoryConfig config, PlanSink sink) {
+        // The configured range may start after the heatmap, e.g. when extending
+        int offset = (int) (config.getStartDate().toEpochDay() - heatmap.getStartDate().toEpochDay());
+        long generated = AbstractContributionGenerator.plan(config, (day, random) -> {
+            int index = offset + day;
+            return index >= 0 && index < heatmap.size() ? heatmap.getCount(index) : 0;
+        }, sink);
+
+        logger.info("Generated {} commits from heatmap", generated);
+    }
+
+    @Override
+    public int getCommitsForDate(LocalDate date, HistoryConfig config, RandomSource random) {
+        return heatmap.getCount(date);
+    }
+}
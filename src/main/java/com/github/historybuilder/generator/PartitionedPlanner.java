@@ -0,0 +1,81 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.CommitPlan;
+import com.github.historybuilder.model.PlanDictionary;
+import com.github.historybuilder.util.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Plans the date range in yearly partitions on a ForkJoin pool and emits the
+ * results in date order. Each partition draws from its own random stream derived
+ * from the run seed and the partition's first day, so workers never share state
+ * and the plan is the same for any number of threads. Only a window of partitions
+ * is in flight at a time, which keeps memory bounded when the sink is a slow writer.
+ */
+public class PartitionedPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedPlanner.class);
+
+    /**
+     * Plans the commits of a single partition.
+     */
+    @FunctionalInterface
+    public interface PartitionTask {
+        void plan(DatePartition partition, RandomSource random, CommitPlan out);
+    }
+
+    private final int parallelism;
+
+    public PartitionedPlanner(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plans all partitions of the configured range and emits one block per partition, in order.
+     * @return the number of commits planned
+     */
+    public long plan(HistoryConfig config, long seed, PlanDictionary dictionary, PartitionTask task, PlanSink sink) {
+        List<DatePartition> partitions = DatePartition.byYear(config.getStartDate(), config.getEndDate());
+
+        logger.debug("Planning {} partitions on {} threads", partitions.size(), parallelism);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Deque<ForkJoinTask<CommitPlan>> inFlight = new ArrayDeque<>();
+            int window = parallelism * 2;
+            int next = 0;
+            long emitted = 0;
+
+            while (next < partitions.size() || !inFlight.isEmpty()) {
+                while (next < partitions.size() && inFlight.size() < window) {
+                    DatePartition partition = partitions.get(next);
+                    RandomSource stream = RandomSource.forPartition(seed, partition.getStartDate().toEpochDay());
+                    long baseEpochSecond = partition.getStartDate().toEpochDay() * 86_400L;
+                    inFlight.add(pool.submit(() -> {
+                        CommitPlan planned = new CommitPlan(dictionary, baseEpochSecond);
+                        task.plan(partition, stream, planned);
+                        return planned;
+                    }));
+                    next++;
+                }
+
+                CommitPlan planned = inFlight.poll().join();
+                emitted += planned.size();
+                sink.accept(planned);
+            }
+            return emitted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
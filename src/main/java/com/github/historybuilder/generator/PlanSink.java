@@ -0,0 +1,15 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.model.CommitPlan;
+
+/**
+ * Receives planned commits in blocks, one per planned partition, in date order.
+ */
+@FunctionalInterface
+public interface PlanSink {
+
+    /**
+     * Accepts the next block of planned commits. The sink may keep the block.
+     */
+    void accept(CommitPlan block);
+}
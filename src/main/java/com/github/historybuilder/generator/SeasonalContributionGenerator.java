@@ -0,0 +1,14 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.model.DistributionPattern;
+
+/**
+ * Generates commits whose likelihood follows the seasons, independent of the day of the week.
+ */
+public class SeasonalContributionGenerator extends AbstractContributionGenerator {
+
+    @Override
+    protected DistributionPattern getPattern() {
+        return DistributionPattern.SEASONAL;
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.historybuilder.generator;
+
+import com.github.historybuilder.model.DistributionPattern;
+
+/**
+ * Generates commits mostly on weekdays, with light weekend activity.
+ */
+public class WeekdayBiasedContributionGenerator extends AbstractContributionGenerator {
+
+    @Override
+    protected DistributionPattern getPattern() {
+        return DistributionPattern.WEEKDAY_BIASED;
+    }
+}
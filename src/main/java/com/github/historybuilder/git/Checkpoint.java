@@ -0,0 +1,222 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.config.AuthorConfig;
+import com.github.historybuilder.config.HistoryConfig;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Journal entry recording how far a build got: the plan it follows and the last
+ * commit whose objects and branch were flushed. The plan is identified by its seed,
+ * its date range and a fingerprint of the remaining settings that shape it, so a
+ * resumed build can replay the same plan and skip what is already written.
+ *
+ * <p>The journal lives in the git directory and is replaced atomically, so after a
+ * crash it holds either the previous or the new entry, never a torn one.
+ */
+public final class Checkpoint {
+    static final String FILE_NAME = "history-builder-checkpoint";
+
+    private final long seed;
+    private final String fingerprint;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final long commitsWritten;
+    private final ObjectId commitId;
+    private final Set<String> basePacks;
+    private final ObjectId baseCommit;
+
+    public Checkpoint(long seed, String fingerprint, LocalDate startDate, LocalDate endDate,
+                      long commitsWritten, ObjectId commitId, Set<String> basePacks, ObjectId baseCommit) {
+        this.seed = seed;
+        this.fingerprint = fingerprint;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.commitsWritten = commitsWritten;
+        this.commitId = commitId;
+        this.basePacks = Collections.unmodifiableSet(new LinkedHashSet<>(basePacks));
+        this.baseCommit = baseCommit;
+    }
+
+    /**
+     * Computes the fingerprint of the settings that shape the plan besides seed and dates.
+     * Commit times are planned in the system time zone, so the zone is part of it.
+     */
+    public static String fingerprint(HistoryConfig config) {
+        String settings = String.join("\n",
+                String.valueOf(config.getPattern()),
+                String.valueOf(config.getCommitsPerDayMin()),
+                String.valueOf(config.getCommitsPerDayMax()),
+                String.valueOf(config.getContributionProbability()),
+                String.valueOf(config.getWeekdayProbabilityBoost()),
+                String.valueOf(config.getWeekendProbabilityReduction()),
+                String.valueOf(config.getLogRotation()),
+                config.getAuthorName(),
+                config.getAuthorEmail(),
+                ZoneId.systemDefault().getId());
+        if (config.getBranchProbability() > 0) {
+            settings += "\n" + String.join(",", String.valueOf(config.getBranchProbability()),
+                    String.valueOf(config.getBranchCommitsMin()), String.valueOf(config.getBranchCommitsMax()),
+                    String.valueOf(config.getMaxOpenBranches()));
+        }
+        if (config.getHeatmapFile() != null) {
+            File heatmap = new File(config.getHeatmapFile());
+            settings += "\n" + heatmap.getAbsolutePath() + "," + heatmap.length();
+        }
+        for (AuthorConfig author : config.getAuthors()) {
+            settings += "\n" + String.join(",", author.getName(), author.getEmail(),
+                    String.valueOf(author.getWeight()), String.valueOf(author.getWeekendWeight()),
+                    String.valueOf(author.getFirstHour()), String.valueOf(author.getLastHour()));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(settings.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Loads the checkpoint of a repository.
+     * @return the checkpoint, or null if the repository has none
+     */
+    public static Checkpoint load(File gitDir) throws IOException {
+        Path file = new File(gitDir, FILE_NAME).toPath();
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        try {
+            String packs = properties.getProperty("base_packs", "");
+            String base = properties.getProperty("base_commit", "");
+            return new Checkpoint(
+                    Long.parseLong(require(properties, "seed")),
+                    require(properties, "fingerprint"),
+                    LocalDate.parse(require(properties, "start_date")),
+                    LocalDate.parse(require(properties, "end_date")),
+                    Long.parseLong(require(properties, "commits_written")),
+                    ObjectId.fromString(require(properties, "commit")),
+                    packs.isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(packs.split(","))),
+                    base.isEmpty() ? null : ObjectId.fromString(base));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt checkpoint " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes this checkpoint to the repository, replacing the previous one once it is written.
+     * @param sync whether to sync the journal to disk before replacing the previous one;
+     *             without it the journal still survives the process being killed
+     */
+    public void save(File gitDir, boolean sync) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("seed", Long.toString(seed));
+        properties.setProperty("fingerprint", fingerprint);
+        properties.setProperty("start_date", startDate.toString());
+        properties.setProperty("end_date", endDate.toString());
+        properties.setProperty("commits_written", Long.toString(commitsWritten));
+        properties.setProperty("commit", commitId.name());
+        properties.setProperty("base_packs", String.join(",", basePacks));
+        if (baseCommit != null) {
+            properties.setProperty("base_commit", baseCommit.name());
+        }
+
+        Path file = new File(gitDir, FILE_NAME).toPath();
+        Path tmp = new File(gitDir, FILE_NAME + ".tmp").toPath();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            properties.store(out, "GitHub History Builder checkpoint");
+            out.flush();
+            if (sync) {
+                channel.force(true);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Removes the checkpoint of a finished build.
+     */
+    public static void delete(File gitDir) throws IOException {
+        Files.deleteIfExists(new File(gitDir, FILE_NAME).toPath());
+    }
+
+    private static String require(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + key);
+        }
+        return value;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Gets the number of planned commits written, not counting the initial commit.
+     */
+    public long getCommitsWritten() {
+        return commitsWritten;
+    }
+
+    public ObjectId getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * Gets the packs that existed before the build started; PACK mode leaves them alone.
+     */
+    public Set<String> getBasePacks() {
+        return basePacks;
+    }
+
+    /**
+     * Gets the commit an extending build started from, or null if the build started
+     * a new repository.
+     */
+    public ObjectId getBaseCommit() {
+        return baseCommit;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.historybuilder.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.util.Arrays;
+
+/**
+ * Formats raw commit objects into one reusable buffer, in the layout CommitBuilder
+ * produces for UTF-8 commits. Messages and identities arrive already UTF-8 encoded
+ * and are copied in as they are; only ids, times and zones are formatted.
+ */
+final class CommitEncoder {
+    private static final byte[] TREE = Constants.encodeASCII("tree ");
+    private static final byte[] PARENT = Constants.encodeASCII("parent ");
+    private static final byte[] AUTHOR = Constants.encodeASCII("author ");
+    private static final byte[] COMMITTER = Constants.encodeASCII("committer ");
+
+    private static final byte[] HEX = Constants.encodeASCII("0123456789abcdef");
+
+    private final byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+    private byte[] buffer = new byte[512];
+    private int length;
+
+    /**
+     * Formats a commit whose author and committer are the same identity at the same time,
+     * replacing the previous one in the buffer.
+     * @param identity encoded identity prefix from {@link IdentityCache}
+     * @param parent parent commit, or null for a root commit
+     * @param mergedParent second parent of a merge commit, or null
+     */
+    void encode(ObjectId tree, ObjectId parent, ObjectId mergedParent, byte[] identity, long epochSecond,
+                int offsetMinutes, byte[] message) {
+        length = 0;
+        writeId(TREE, tree);
+        if (parent != null) {
+            writeId(PARENT, parent);
+        }
+        if (mergedParent != null) {
+            writeId(PARENT, mergedParent);
+        }
+        writeIdent(AUTHOR, identity, epochSecond, offsetMinutes);
+        writeIdent(COMMITTER, identity, epochSecond, offsetMinutes);
+        writeByte('\n');
+        write(message);
+    }
+
+    byte[] array() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    private void writeId(byte[] header, ObjectId id) {
+        write(header);
+        ensureCapacity(Constants.OBJECT_ID_STRING_LENGTH + 1);
+        id.copyRawTo(rawId, 0);
+        for (byte b : rawId) {
+            buffer[length++] = HEX[(b >> 4) & 0xf];
+            buffer[length++] = HEX[b & 0xf];
+        }
+        buffer[length++] = '\n';
+    }
+
+    private void writeIdent(byte[] header, byte[] identity, long epochSecond, int offsetMinutes) {
+        write(header);
+        write(identity);
+        ensureCapacity(IdentityCache.MAX_TIME_LENGTH + 1);
+        length = IdentityCache.writeTime(buffer, length, epochSecond, offsetMinutes);
+        buffer[length++] = '\n';
+    }
+
+    private void write(byte[] data) {
+        ensureCapacity(data.length);
+        System.arraycopy(data, 0, buffer, length, data.length);
+        length += data.length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.historybuilder.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the current body of each generated file once and grows it in place.
+ * Appends copy only the new bytes. When appending moves on to another file (log
+ * rotation), the previous body is released and reloaded from its blob only if it
+ * is ever appended to again. Without a reader nothing can be reloaded, so bodies
+ * are kept for the whole run.
+ *
+ * <p>A store forked for a feature branch sees every file as it was at the fork and
+ * keeps its own copy of each file it appends to, so the branch's additions can be
+ * merged back afterwards.
+ */
+public class ContentStore {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final ObjectReader reader;
+    private final boolean releaseInactive;
+    private final Map<String, Buffer> buffers = new HashMap<>();
+    private String activePath;
+
+    /**
+     * For a forked store: the parent's bodies and their lengths at the fork, and the
+     * length each of this store's bodies started with.
+     */
+    private final Map<String, Buffer> forkBodies;
+    private final Map<String, Integer> forkLengths;
+    private final Map<String, Integer> baseLengths;
+
+    public ContentStore(ObjectReader reader) {
+        this(reader, reader != null);
+    }
+
+    /**
+     * Creates a store that loads bodies through the reader but may be told to keep
+     * them, e.g. when the latest blobs are not readable yet.
+     */
+    public ContentStore(ObjectReader reader, boolean releaseInactive) {
+        this.reader = reader;
+        this.releaseInactive = releaseInactive;
+        this.forkBodies = null;
+        this.forkLengths = null;
+        this.baseLengths = null;
+    }
+
+    private ContentStore(ContentStore parent) {
+        this.reader = parent.reader;
+        this.releaseInactive = false;
+        // Parent bodies only grow, so their prefixes stay valid without copying them now
+        this.forkBodies = new HashMap<>(parent.buffers);
+        this.forkLengths = new HashMap<>();
+        for (Map.Entry<String, Buffer> body : parent.buffers.entrySet()) {
+            forkLengths.put(body.getKey(), body.getValue().length());
+        }
+        this.baseLengths = new LinkedHashMap<>();
+    }
+
+    /**
+     * Creates a store for a branch that starts from the current bodies. Appends to the
+     * branch do not affect this store.
+     */
+    public ContentStore fork() {
+        return new ContentStore(this);
+    }
+
+    /**
+     * Replaces the body of a file.
+     */
+    public Buffer put(String path, byte[] content) {
+        Buffer buffer = new Buffer(Math.max(INITIAL_CAPACITY, content.length));
+        buffer.append(content, 0, content.length);
+        buffers.put(path, buffer);
+        return buffer;
+    }
+
+    /**
+     * Appends data to a file. If the body is not held it is loaded from
+     * existingBlob, or started empty when existingBlob is null.
+     * @param existingBlob current blob of the file; must be null when there is no reader
+     */
+    public Buffer append(String path, byte[] data, ObjectId existingBlob) throws IOException {
+        if (!path.equals(activePath)) {
+            if (activePath != null && releaseInactive) {
+                buffers.remove(activePath);
+            }
+            activePath = path;
+        }
+
+        Buffer buffer = buffers.get(path);
+        if (buffer == null) {
+            Buffer forkBody = forkBodies != null ? forkBodies.get(path) : null;
+            if (forkBody != null) {
+                buffer = put(path, Arrays.copyOf(forkBody.array(), forkLengths.get(path)));
+            } else if (existingBlob != null) {
+                buffer = put(path, reader.open(existingBlob, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE));
+            } else {
+                buffer = put(path, new byte[0]);
+            }
+            if (baseLengths != null) {
+                baseLengths.put(path, buffer.length());
+            }
+        }
+        buffer.append(data, 0, data.length);
+        return buffer;
+    }
+
+    /**
+     * Gets the files a forked store has appended to.
+     */
+    public Set<String> appendedPaths() {
+        return baseLengths.keySet();
+    }
+
+    /**
+     * Gets the bytes a forked store has appended to a file since the fork.
+     */
+    public byte[] appended(String path) {
+        Buffer buffer = buffers.get(path);
+        return Arrays.copyOfRange(buffer.array(), baseLengths.get(path), buffer.length());
+    }
+
+    /**
+     * Releases every body except the one being appended to, for a store told to keep
+     * them until their blobs are readable.
+     */
+    public void releaseInactive() {
+        buffers.keySet().removeIf(path -> !path.equals(activePath));
+    }
+
+    /**
+     * Checks whether the body of a file is held, i.e. appending to it will not
+     * need its existing blob.
+     */
+    public boolean holds(String path) {
+        return buffers.containsKey(path);
+    }
+
+    /**
+     * Growable byte array holding one file body. Appends never rewrite the bytes below
+     * the current length and growing moves the body to a new array, so an array and
+     * length read at any point stay a valid view of the body as it was then.
+     */
+    public static final class Buffer {
+        private byte[] bytes;
+        private int length;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void append(byte[] data, int offset, int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+            System.arraycopy(data, offset, bytes, length, count);
+            length += count;
+        }
+
+        /**
+         * Gets the backing array; only the first {@link #length()} bytes are valid.
+         */
+        public byte[] array() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+    }
+}
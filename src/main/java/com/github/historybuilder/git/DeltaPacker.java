@@ -0,0 +1,181 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.util.FileSync;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.pack.PackWriter;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.pack.PackConfig;
+import org.eclipse.jgit.storage.pack.PackStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Turns the objects streamed into packs during a run into one delta-compressed pack.
+ * Packs that existed when the packer was created are left alone; only the packs
+ * written since are replaced. Successive versions of the same file sit next to each
+ * other in the delta search window, so the growing logs compress to small deltas.
+ */
+public class DeltaPacker {
+    private static final Logger logger = LoggerFactory.getLogger(DeltaPacker.class);
+
+    private final Repository repository;
+    private final File packDirectory;
+    private final Set<String> existingPacks;
+    private final Set<String> supersededPacks = new HashSet<>();
+    private boolean fsync;
+
+    public DeltaPacker(Repository repository) {
+        this.repository = repository;
+        this.packDirectory = ((ObjectDirectory) repository.getObjectDatabase()).getPackDirectory();
+        this.existingPacks = listPacks();
+    }
+
+    /**
+     * Creates a packer that writes the objects of one repository, e.g. an in-memory one,
+     * into the pack directory of another. Existing packs there are left alone.
+     */
+    public DeltaPacker(Repository repository, File packDirectory) {
+        this.repository = repository;
+        this.packDirectory = packDirectory;
+        this.existingPacks = listPacks();
+    }
+
+    /**
+     * Creates a packer for a resumed run; only the given packs predate the run.
+     */
+    public DeltaPacker(Repository repository, Set<String> basePacks) {
+        this.repository = repository;
+        this.packDirectory = ((ObjectDirectory) repository.getObjectDatabase()).getPackDirectory();
+        this.existingPacks = new HashSet<>(basePacks);
+    }
+
+    /**
+     * Sets whether the new pack and index are synced to disk before they replace the
+     * intermediate packs. Without it, a crash right after the repack may lose objects.
+     */
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    /**
+     * Gets the packs this packer leaves alone.
+     */
+    public Set<String> getBasePacks() {
+        return Collections.unmodifiableSet(existingPacks);
+    }
+
+    /**
+     * Writes everything reachable from tip but not from the given bases into a new
+     * delta-compressed pack and index. The intermediate packs of this run stay on disk
+     * until {@link #deleteSupersededPacks()}, as the repository may still read from them.
+     */
+    public void repack(ObjectId tip, Set<ObjectId> bases) throws IOException {
+        Set<String> intermediatePacks = listPacks();
+        intermediatePacks.removeAll(existingPacks);
+
+        PackConfig packConfig = new PackConfig(repository);
+        packConfig.setDeltaCompress(true);
+        // The intermediate packs hold whole objects only; reusing them as-is would skip delta search
+        packConfig.setReuseDeltas(false);
+        packConfig.setReuseObjects(false);
+
+        try (ObjectReader reader = repository.newObjectReader();
+             PackWriter writer = new PackWriter(packConfig, reader)) {
+            writer.preparePack(NullProgressMonitor.INSTANCE, Collections.singleton(tip), bases);
+
+            String name = "pack-" + writer.computeName().name();
+            File tmpPack = new File(packDirectory, name + ".pack.tmp");
+            File tmpIndex = new File(packDirectory, name + ".idx.tmp");
+
+            try (FileChannel channel = open(tmpPack)) {
+                writer.writePack(NullProgressMonitor.INSTANCE, NullProgressMonitor.INSTANCE,
+                        Channels.newOutputStream(channel));
+                force(channel);
+            }
+            try (FileChannel channel = open(tmpIndex)) {
+                writer.writeIndex(Channels.newOutputStream(channel));
+                force(channel);
+            }
+
+            // Index last: a pack is only visible once its .idx exists
+            Files.move(tmpPack.toPath(), new File(packDirectory, name + ".pack").toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tmpIndex.toPath(), new File(packDirectory, name + ".idx").toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (fsync) {
+                // The renames must be on disk before the packs they replace are deleted
+                FileSync.sync(new File(packDirectory, name + ".idx").toPath());
+            }
+            intermediatePacks.remove(name);
+
+            PackStatistics statistics = writer.getStatistics();
+            logger.info("Wrote {} ({} objects, {} deltas, {} bytes)", name,
+                    statistics.getTotalObjects(), statistics.getTotalDeltas(), statistics.getTotalBytes());
+        }
+
+        supersededPacks.addAll(intermediatePacks);
+    }
+
+    /**
+     * Deletes the intermediate packs the repack replaced. Call it once the refs point
+     * into the new pack. The repository's pack list is closed first, so JGit rescans
+     * the pack directory instead of reading from a deleted file.
+     */
+    public void deleteSupersededPacks() throws IOException {
+        if (supersededPacks.isEmpty()) {
+            return;
+        }
+        repository.getObjectDatabase().close();
+        for (String pack : supersededPacks) {
+            deletePack(pack);
+        }
+        supersededPacks.clear();
+        existingPacks.clear();
+        existingPacks.addAll(listPacks());
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void force(FileChannel channel) throws IOException {
+        if (fsync) {
+            channel.force(true);
+        }
+    }
+
+    private void deletePack(String name) throws IOException {
+        for (String extension : new String[] {".idx", ".pack", ".rev", ".bitmap"}) {
+            Files.deleteIfExists(new File(packDirectory, name + extension).toPath());
+        }
+        logger.debug("Removed intermediate pack {}", name);
+    }
+
+    private Set<String> listPacks() {
+        Set<String> packs = new HashSet<>();
+        String[] names = packDirectory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith("pack-") && name.endsWith(".pack")) {
+                    packs.add(name.substring(0, name.length() - ".pack".length()));
+                }
+            }
+        }
+        return packs;
+    }
+}
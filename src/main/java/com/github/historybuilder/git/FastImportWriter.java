@@ -0,0 +1,339 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.model.Author;
+import com.github.historybuilder.model.Commit;
+import com.github.historybuilder.tracking.BuildMetrics;
+import com.github.historybuilder.tracking.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes commits as a git fast-import stream.
+ * Commits are referenced through marks and each commit carries only the file it
+ * changes, as inline data. The encoder writes into one reusable byte buffer and
+ * formats numbers in place, so producing the stream stays cheap next to the import.
+ *
+ * <p>fast-import has no way to append to a file, so each commit carries the whole
+ * current body of its log file. The stream grows with the square of the commits per
+ * file: without log rotation it is quadratic in the length of the history, so long
+ * histories should rotate the log yearly or monthly.
+ *
+ * <p>Commits on feature branches name their parent mark explicitly, so the whole
+ * history is written to one ref; a merge lists the branch tip as second parent and
+ * carries the merged bodies of the files the branch changed.
+ */
+public class FastImportWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FastImportWriter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Output name that selects standard output.
+     */
+    public static final String STDOUT = "-";
+
+    private final OutputStream out;
+    private final boolean closeStream;
+    private final byte[] refLine;
+    private final ContentStore contents = new ContentStore(null);
+    private final IdentityCache identities = new IdentityCache();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int nextMark = 1;
+    private int parentMark;
+    private final Map<String, Branch> branches = new HashMap<>();
+    private long commitsWritten;
+    private BuildMetrics metrics = new BuildMetrics();
+    private ProgressTracker progress = new ProgressTracker(1, TimeUnit.SECONDS);
+
+    /**
+     * Creates a writer for the given branch.
+     * @param closeStream whether {@link #close()} closes the underlying stream (false for stdout)
+     */
+    public FastImportWriter(OutputStream out, String refName, boolean closeStream) throws IOException {
+        this.out = out;
+        this.closeStream = closeStream;
+        this.refLine = ("commit " + refName + "\n").getBytes(StandardCharsets.UTF_8);
+        writeAscii("feature done\n");
+    }
+
+    /**
+     * Opens a writer on the configured output file, or on stdout for {@link #STDOUT}.
+     */
+    public static FastImportWriter open(String output, String refName) throws IOException {
+        if (STDOUT.equals(output)) {
+            return new FastImportWriter(System.out, refName, false);
+        }
+        return new FastImportWriter(Files.newOutputStream(Paths.get(output)), refName, true);
+    }
+
+    /**
+     * Sets the metrics the written commits and stream bytes are recorded in.
+     */
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the tracker each written commit is reported to.
+     */
+    public void setProgress(ProgressTracker progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Writes the initial commit with README.
+     */
+    public void writeInitialCommit(Author author, ZonedDateTime timestamp) throws IOException {
+        byte[] readme = GitRepositoryManager.README_CONTENT.getBytes(StandardCharsets.UTF_8);
+        parentMark = writeCommit(author, timestamp,
+                GitRepositoryManager.INITIAL_COMMIT_MESSAGE.getBytes(StandardCharsets.UTF_8), parentMark, 0);
+        writeFile(GitRepositoryManager.README_PATH, readme, readme.length);
+    }
+
+    /**
+     * Writes a single commit appending its content to its file. The file's whole
+     * body goes into the stream.
+     */
+    public void writeCommit(Commit commit) throws IOException {
+        if (commit.isMerge()) {
+            writeMerge(commit);
+            return;
+        }
+
+        byte[] content = commit.getFileContent().getBytes(StandardCharsets.UTF_8);
+        if (commit.getBranch() == null) {
+            ContentStore.Buffer body = contents.append(commit.getFilePath(), content, null);
+            parentMark = writeCommit(commit.getAuthor(), commit.getTimestamp(), commit.getEncodedMessage(),
+                    parentMark, 0);
+            writeFile(commit.getFilePath(), body);
+            return;
+        }
+
+        // A branch forks from the mainline commit before its first commit
+        Branch branch = branches.computeIfAbsent(commit.getBranch(), name -> new Branch(contents.fork(), parentMark));
+        ContentStore.Buffer body = branch.contents.append(commit.getFilePath(), content, null);
+        branch.mark = writeCommit(commit.getAuthor(), commit.getTimestamp(), commit.getEncodedMessage(),
+                branch.mark, 0);
+        writeFile(commit.getFilePath(), body);
+    }
+
+    /**
+     * Writes the merge of a branch: the branch's additions are appended to the mainline
+     * bodies and the changed files are listed with their merged content.
+     */
+    private void writeMerge(Commit commit) throws IOException {
+        Branch branch = branches.remove(commit.getBranch());
+        if (branch == null) {
+            throw new IllegalStateException("Branch " + commit.getBranch() + " has no commits to merge");
+        }
+
+        parentMark = writeCommit(commit.getAuthor(), commit.getTimestamp(), commit.getEncodedMessage(),
+                parentMark, branch.mark);
+        for (String path : branch.contents.appendedPaths()) {
+            writeFile(path, contents.append(path, branch.contents.appended(path), null));
+        }
+    }
+
+    /**
+     * Writes multiple commits.
+     */
+    public void writeCommits(List<Commit> commits) throws IOException {
+        logger.info("Writing {} commits to fast-import stream...", commits.size());
+        writeCommits(commits.iterator());
+    }
+
+    /**
+     * Writes commits as they arrive, e.g. from a {@code CommitStream}.
+     * @return the number of commits written
+     */
+    public long writeCommits(Iterator<Commit> commits) throws IOException {
+        long written = 0;
+        while (commits.hasNext()) {
+            Commit commit = commits.next();
+            long start = System.nanoTime();
+            writeCommit(commit);
+            long latency = System.nanoTime() - start;
+            metrics.recordCommit(latency);
+            metrics.addTime(BuildMetrics.Phase.FAST_IMPORT, latency);
+            progress.recordProgress(1);
+            written++;
+        }
+        logger.info("All {} commits written to fast-import stream", written);
+        return written;
+    }
+
+    /**
+     * Terminates the stream and flushes it.
+     */
+    public void finish() throws IOException {
+        writeAscii("done\n");
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Gets the number of commits written, including the initial commit.
+     */
+    public long getCommitsWritten() {
+        return commitsWritten;
+    }
+
+    /**
+     * Writes a commit header; the commit's file changes follow.
+     * @param parent mark of the first parent, or 0 for a root commit
+     * @param mergedParent mark of the second parent of a merge, or 0
+     * @return the mark of the commit
+     */
+    private int writeCommit(Author author, ZonedDateTime timestamp, byte[] message, int parent, int mergedParent)
+            throws IOException {
+        int mark = nextMark++;
+        byte[] ident = identities.get(author);
+        long when = timestamp.toEpochSecond();
+        int offsetMinutes = timestamp.getOffset().getTotalSeconds() / 60;
+
+        write(refLine, 0, refLine.length);
+        writeAscii("mark :");
+        writeNumber(mark);
+        writeAscii("\nauthor ");
+        writeIdent(ident, when, offsetMinutes);
+        writeAscii("committer ");
+        writeIdent(ident, when, offsetMinutes);
+        writeData(message, message.length);
+        writeByte('\n');
+        if (parent != 0) {
+            writeAscii("from :");
+            writeNumber(parent);
+            writeByte('\n');
+        }
+        if (mergedParent != 0) {
+            writeAscii("merge :");
+            writeNumber(mergedParent);
+            writeByte('\n');
+        }
+
+        commitsWritten++;
+        return mark;
+    }
+
+    private void writeFile(String path, ContentStore.Buffer body) throws IOException {
+        writeFile(path, body.array(), body.length());
+    }
+
+    private void writeFile(String path, byte[] content, int length) throws IOException {
+        writeAscii("M 100644 inline ");
+        writeAscii(path);
+        writeByte('\n');
+        writeData(content, length);
+        writeByte('\n');
+    }
+
+    private void writeIdent(byte[] ident, long when, int offsetMinutes) throws IOException {
+        write(ident, 0, ident.length);
+        ensureCapacity(IdentityCache.MAX_TIME_LENGTH + 1);
+        position = IdentityCache.writeTime(buffer, position, when, offsetMinutes);
+        buffer[position++] = '\n';
+    }
+
+    private void writeData(byte[] data, int length) throws IOException {
+        writeAscii("data ");
+        writeNumber(length);
+        writeByte('\n');
+        write(data, 0, length);
+    }
+
+    private void writeNumber(long value) throws IOException {
+        ensureCapacity(20);
+        if (value == 0) {
+            buffer[position++] = '0';
+            return;
+        }
+        int start = position;
+        while (value > 0) {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void writeAscii(String text) throws IOException {
+        int length = text.length();
+        if (length > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Stream token too long: " + length);
+        }
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        if (length > BUFFER_SIZE - position) {
+            flushBuffer();
+            if (length > BUFFER_SIZE) {
+                out.write(data, offset, length);
+                metrics.addBytesWritten(length);
+                return;
+            }
+        }
+        System.arraycopy(data, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            metrics.addBytesWritten(position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        if (closeStream) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    /**
+     * A feature branch: its files and the mark of its last commit.
+     */
+    private static final class Branch {
+        private final ContentStore contents;
+        private int mark;
+
+        Branch(ContentStore contents, int mark) {
+            this.contents = contents;
+            this.mark = mark;
+        }
+    }
+}
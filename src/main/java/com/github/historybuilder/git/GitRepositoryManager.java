@@ -2,26 +2,96 @@ package com.github.historybuilder.git;
 
 import com.github.historybuilder.model.Commit;
 import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.Durability;
+import com.github.historybuilder.model.WriteMode;
+import com.github.historybuilder.tracking.BuildMetrics;
+import com.github.historybuilder.tracking.BuildMetrics.Phase;
+import com.github.historybuilder.tracking.ProgressTracker;
+import com.github.historybuilder.util.FileSync;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.internal.storage.dfs.DfsInserter;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.PackInserter;
+import org.eclipse.jgit.internal.storage.pack.PackWriter;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Manages Git repository operations.
  */
 public class GitRepositoryManager {
     private static final Logger logger = LoggerFactory.getLogger(GitRepositoryManager.class);
+    // Prefix of the pack and index a PackInserter writes before it is flushed
+    private static final String INSERTER_TEMP_PREFIX = "insert_";
+
+    static final String README_PATH = "README.md";
+    static final String README_CONTENT = "# GitHub Contribution History\n\n" +
+            "This repository contains generated contribution history.\n" +
+            "Generated by GitHub History Builder\n";
+    static final String INITIAL_COMMIT_MESSAGE = "Initial commit";
+
     private Git git;
     private File repoDir;
+    private boolean bare;
+    private ObjectDatabaseWriter objectWriter;
+    private InMemoryRepository memoryRepository;
+    private DeltaPacker deltaPacker;
+    private ObjectId baseCommit;
+    private String branch = Constants.R_HEADS + Constants.MASTER;
+    private HistoryConfig config;
+    // WORKING_TREE mode: commits are chained from the index here, the branch moves at checkpoints
+    private ObjectInserter indexInserter;
+    private ObjectId indexHead;
+    private Durability durability = Durability.DEFAULT;
+    private String fingerprint;
+    private long commitsWritten;
+    private boolean checkpointDue;
+    private BuildMetrics metrics = new BuildMetrics();
+    private ProgressTracker progress = new ProgressTracker(1, TimeUnit.SECONDS);
+
+    /**
+     * Sets the metrics the phases, commits and inserted objects are recorded in.
+     * Must be called before the repository is initialized or opened.
+     */
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the tracker each written commit is reported to.
+     */
+    public void setProgress(ProgressTracker progress) {
+        this.progress = progress;
+    }
 
     /**
      * Initializes a new Git repository at the specified path.
@@ -36,14 +106,26 @@ public class GitRepositoryManager {
             }
         }
 
+        bare = config.isBare();
+        durability = config.getDurability();
+        if (config.getWriteMode() == WriteMode.IN_MEMORY) {
+            // Nothing touches the disk until finish() writes the pack and the refs
+            memoryRepository = new InMemoryRepository(new DfsRepositoryDescription(repoDir.getName()));
+            openWriter(config, memoryRepository, null);
+            logger.info("Building repository in memory for: {}", repoDir.getAbsolutePath());
+            createInitialCommit(config);
+            return;
+        }
+
         // Initialize git repository
-        git = Git.init().setDirectory(repoDir).call();
+        initGitRepository(config);
 
-        // Configure user
-        var config_obj = git.getRepository().getConfig();
-        config_obj.setString("user", null, "name", config.getAuthorName());
-        config_obj.setString("user", null, "email", config.getAuthorEmail());
-        config_obj.save();
+        Repository repository = git.getRepository();
+        if (config.getWriteMode() == WriteMode.WORKING_TREE) {
+            openIndexCommits(config, repository, null);
+        } else {
+            openWriter(config, repository, config.getWriteMode() == WriteMode.PACK ? new DeltaPacker(repository) : null);
+        }
 
         logger.info("Initialized Git repository at: {}", repoDir.getAbsolutePath());
 
@@ -51,66 +133,359 @@ public class GitRepositoryManager {
         createInitialCommit(config);
     }
 
+    /**
+     * Runs git init on the repository directory and configures the user.
+     */
+    private void initGitRepository(HistoryConfig config) throws IOException, GitAPIException {
+        git = Git.init().setDirectory(repoDir).setBare(bare).call();
+
+        // Configure user
+        StoredConfig repositoryConfig = git.getRepository().getConfig();
+        repositoryConfig.setString("user", null, "name", config.getAuthorName());
+        repositoryConfig.setString("user", null, "email", config.getAuthorEmail());
+        applyDurability(repositoryConfig);
+        repositoryConfig.save();
+        // JGit's fsync options are deprecated in git, so they stay out of the config file
+        applyFsync(repositoryConfig);
+    }
+
+    /**
+     * Sets the durability profile's reflog, line ending and auto gc options in the
+     * repository configuration. New repositories keep them in their config file, so
+     * FAST fixtures also skip auto gc later; opened repositories only use them for this run.
+     */
+    private void applyDurability(StoredConfig repositoryConfig) {
+        switch (durability) {
+            case FAST:
+                repositoryConfig.setBoolean("core", null, "logAllRefUpdates", false);
+                repositoryConfig.setBoolean("core", null, "autocrlf", false);
+                repositoryConfig.setInt("gc", null, "auto", 0);
+                break;
+            case DURABLE:
+                repositoryConfig.setBoolean("core", null, "logAllRefUpdates", true);
+                break;
+            case DEFAULT:
+                break;
+        }
+    }
+
+    /**
+     * Makes JGit sync loose objects, refs and reflogs as it writes them in the DURABLE
+     * profile, for this run only. The other profiles keep JGit's default of not syncing.
+     * Must be called before any inserter is opened.
+     */
+    private void applyFsync(StoredConfig repositoryConfig) {
+        if (durability == Durability.DURABLE) {
+            repositoryConfig.setBoolean("core", null, "fsyncObjectFiles", true);
+            repositoryConfig.setBoolean("core", null, "fsyncRefFiles", true);
+        }
+    }
+
+    /**
+     * Gets the reflog message of a ref update, or null if the profile writes no reflog.
+     */
+    private String reflogMessage(String message) {
+        return durability == Durability.FAST ? null : message;
+    }
+
+    /**
+     * Syncs the whole repository directory to disk, the one barrier of a FAST build and
+     * the last of a DURABLE one. The default profile leaves it to the operating system.
+     */
+    private void syncRepository() throws IOException {
+        if (durability == Durability.DEFAULT) {
+            return;
+        }
+        BuildMetrics.Timer syncTimer = metrics.time(Phase.SYNC);
+        try {
+            FileSync.syncTree(git.getRepository().getDirectory().toPath());
+        } finally {
+            syncTimer.stop();
+        }
+        logger.info("Synced {} to disk", git.getRepository().getDirectory());
+    }
+
+    /**
+     * Reopens a repository at its last checkpoint. Commits after the checkpoint are
+     * continued from the checkpoint's commit; nothing before it is written again.
+     */
+    public void resumeRepository(HistoryConfig config, Checkpoint checkpoint) throws IOException {
+        repoDir = new File(config.getRepositoryPath());
+        git = Git.open(repoDir);
+        durability = config.getDurability();
+        applyDurability(git.getRepository().getConfig());
+        applyFsync(git.getRepository().getConfig());
+        bare = git.getRepository().isBare();
+
+        Repository repository = git.getRepository();
+        deleteInserterLeftovers(repository);
+        openWriter(config, repository, config.getWriteMode() == WriteMode.PACK
+                ? new DeltaPacker(repository, checkpoint.getBasePacks())
+                : null);
+        objectWriter.resume(checkpoint.getCommitId());
+        baseCommit = checkpoint.getBaseCommit();
+        branch = headBranch(repository);
+        commitsWritten = checkpoint.getCommitsWritten();
+
+        logger.info("Resuming {} after {} commits at {}", repoDir.getAbsolutePath(),
+                commitsWritten, checkpoint.getCommitId().name());
+    }
+
+    /**
+     * Opens an existing repository to add commits on top of its HEAD. Existing commits
+     * are never rewritten; in PACK mode only the new objects are packed.
+     */
+    public void extendRepository(HistoryConfig config) throws IOException {
+        repoDir = new File(config.getRepositoryPath());
+        git = Git.open(repoDir);
+        durability = config.getDurability();
+        applyDurability(git.getRepository().getConfig());
+        applyFsync(git.getRepository().getConfig());
+        bare = git.getRepository().isBare();
+
+        Repository repository = git.getRepository();
+        ObjectId head = repository.resolve(Constants.HEAD);
+        if (head == null) {
+            throw new IOException("Repository has no commits to extend: " + repoDir.getAbsolutePath());
+        }
+
+        branch = headBranch(repository);
+        if (config.getWriteMode() == WriteMode.WORKING_TREE) {
+            openIndexCommits(config, repository, head);
+        } else {
+            openWriter(config, repository, config.getWriteMode() == WriteMode.PACK ? new DeltaPacker(repository) : null);
+            objectWriter.resume(head);
+            baseCommit = head;
+        }
+
+        logger.info("Extending {} on top of {}", repoDir.getAbsolutePath(), head.name());
+    }
+
+    /**
+     * Reads the time of the latest commit of the configured repository, in the time
+     * zone it was recorded in.
+     * @return the commit time, or null if the repository has no commits
+     */
+    public static ZonedDateTime readLastCommitTime(HistoryConfig config) throws IOException {
+        try (Git existing = Git.open(new File(config.getRepositoryPath()));
+             RevWalk walk = new RevWalk(existing.getRepository())) {
+            ObjectId head = existing.getRepository().resolve(Constants.HEAD);
+            if (head == null) {
+                return null;
+            }
+            PersonIdent committer = walk.parseCommit(head).getCommitterIdent();
+            return committer.getWhenAsInstant()
+                    .atZone(ZoneOffset.ofTotalSeconds(committer.getTimeZoneOffset() * 60));
+        }
+    }
+
+    /**
+     * Deletes the temporary packs and indexes that pack inserters of an interrupted
+     * build left in the object directory. git gc does not prune them, and nothing else
+     * writes to the repository while a build resumes.
+     */
+    private static void deleteInserterLeftovers(Repository repository) throws IOException {
+        Path objects = ((ObjectDirectory) repository.getObjectDatabase()).getDirectory().toPath();
+        List<Path> leftovers;
+        try (Stream<Path> files = Files.list(objects)) {
+            leftovers = files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(INSERTER_TEMP_PREFIX) && (name.endsWith(".pack") || name.endsWith(".idx"));
+            }).collect(Collectors.toList());
+        }
+        for (Path leftover : leftovers) {
+            Files.deleteIfExists(leftover);
+        }
+        if (!leftovers.isEmpty()) {
+            logger.info("Deleted {} temporary files of the interrupted build", leftovers.size());
+        }
+    }
+
+    /**
+     * Gets the branch HEAD points at, falling back to master when HEAD is detached.
+     */
+    private static String headBranch(Repository repository) throws IOException {
+        String fullBranch = repository.getFullBranch();
+        return fullBranch != null && fullBranch.startsWith(Constants.R_HEADS)
+                ? fullBranch
+                : Constants.R_HEADS + Constants.MASTER;
+    }
+
+    /**
+     * Loads the checkpoint left by an interrupted build in the configured repository.
+     * @return the checkpoint, or null if there is none
+     */
+    public static Checkpoint loadCheckpoint(HistoryConfig config) throws IOException {
+        File repository = new File(config.getRepositoryPath());
+        File gitDir = new File(repository, Constants.DOT_GIT);
+        return Checkpoint.load(gitDir.isDirectory() ? gitDir : repository);
+    }
+
+    /**
+     * Sets up WORKING_TREE mode: commits are built from the index and chained by id,
+     * on the branch HEAD points at.
+     * @param head the commit to continue from, or null for a new repository
+     */
+    private void openIndexCommits(HistoryConfig config, Repository repository, ObjectId head) throws IOException {
+        this.config = config;
+        branch = headBranch(repository);
+        indexInserter = new MeasuredInserter(repository.newObjectInserter(), metrics);
+        indexHead = head;
+    }
+
+    /**
+     * Sets up the object writer for OBJECT_DATABASE, PACK and IN_MEMORY mode.
+     */
+    private void openWriter(HistoryConfig config, Repository repository, DeltaPacker packer) {
+        this.config = config;
+        this.fingerprint = Checkpoint.fingerprint(config);
+
+        if (config.getWriteMode() == WriteMode.OBJECT_DATABASE) {
+            objectWriter = new ObjectDatabaseWriter(repository,
+                    () -> new MeasuredInserter(repository.newObjectInserter(), metrics), config.getWriterThreads());
+        } else if (config.getWriteMode() == WriteMode.PACK) {
+            deltaPacker = packer;
+            deltaPacker.setFsync(durability == Durability.DURABLE);
+            // Each hashing thread streams into its own pack; the repack merges them
+            ObjectDirectory objectDirectory = (ObjectDirectory) repository.getObjectDatabase();
+            objectWriter = new ObjectDatabaseWriter(repository, () -> {
+                PackInserter inserter = objectDirectory.newPackInserter();
+                inserter.checkExisting(false);
+                return new MeasuredInserter(inserter, metrics);
+            }, config.getWriterThreads());
+        } else if (config.getWriteMode() == WriteMode.IN_MEMORY) {
+            objectWriter = new ObjectDatabaseWriter(repository, () -> {
+                DfsInserter inserter = (DfsInserter) memoryRepository.getObjectDatabase().newInserter();
+                inserter.checkExisting(false);
+                return new MeasuredInserter(inserter, metrics);
+            }, config.getWriterThreads());
+        }
+    }
+
     /**
      * Creates the initial commit with README.
      */
     private void createInitialCommit(HistoryConfig config) throws IOException, GitAPIException {
-        File readmeFile = new File(repoDir, "README.md");
-        String readmeContent = "# GitHub Contribution History\n\n" +
-                "This repository contains generated contribution history.\n" +
-                "Generated by GitHub History Builder\n";
+        PersonIdent author = new PersonIdent(config.getAuthorName(), config.getAuthorEmail());
 
-        Files.write(readmeFile.toPath(), readmeContent.getBytes());
+        if (objectWriter != null) {
+            objectWriter.putFile(README_PATH, README_CONTENT.getBytes(StandardCharsets.UTF_8));
+            objectWriter.commit(INITIAL_COMMIT_MESSAGE, author);
+            logger.info("Created initial commit with README");
+            return;
+        }
 
-        git.add().addFilepattern("README.md").call();
+        File readmeFile = new File(repoDir, README_PATH);
+        Files.write(readmeFile.toPath(), README_CONTENT.getBytes());
 
-        PersonIdent author = new PersonIdent(config.getAuthorName(), config.getAuthorEmail());
-        git.commit()
-                .setMessage("Initial commit")
-                .setAuthor(author)
-                .setCommitter(author)
-                .call();
+        DirCache index = git.add().addFilepattern(README_PATH).call();
+        commitIndex(index, INITIAL_COMMIT_MESSAGE, author);
 
         logger.info("Created initial commit with README");
     }
 
     /**
      * Writes a commit to the repository.
+     * The branch only moves at checkpoints and when {@link #finish()} is called. In
+     * OBJECT_DATABASE, PACK and IN_MEMORY mode with several writer threads the commit
+     * may still be hashing when this returns.
      */
     public void writeCommit(Commit commit) throws IOException, GitAPIException {
-        if (git == null) {
+        if (git == null && objectWriter == null) {
             throw new IllegalStateException("Repository not initialized. Call initializeRepository first.");
         }
 
-        // Write file content
-        Path filePath = Paths.get(repoDir.getAbsolutePath(), commit.getFilePath());
-        Files.createDirectories(filePath.getParent());
+        if (objectWriter != null) {
+            BuildMetrics.Timer objectWriteTimer = metrics.time(Phase.OBJECT_WRITE);
+            try {
+                writeCommitToObjectDatabase(commit);
+            } finally {
+                objectWriteTimer.stop();
+            }
+            return;
+        }
 
-        if (Files.exists(filePath)) {
-            // Append to existing file
-            String currentContent = new String(Files.readAllBytes(filePath));
-            Files.write(filePath, (currentContent + commit.getFileContent()).getBytes());
-        } else {
-            // Create new file
-            Files.write(filePath, commit.getFileContent().getBytes());
+        BuildMetrics.Timer fileIoTimer = metrics.time(Phase.FILE_IO);
+        try {
+            // Write file content
+            Path filePath = Paths.get(repoDir.getAbsolutePath(), commit.getFilePath());
+            Files.createDirectories(filePath.getParent());
+
+            // Append in place; the existing body is never read back
+            byte[] content = commit.getFileContent().getBytes();
+            Files.write(filePath, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            metrics.addBytesWritten(content.length);
+        } finally {
+            fileIoTimer.stop();
         }
 
         // Stage the file
-        git.add().addFilepattern(commit.getFilePath()).call();
+        DirCache index;
+        BuildMetrics.Timer stagingTimer = metrics.time(Phase.STAGING);
+        try {
+            index = git.add().addFilepattern(commit.getFilePath()).call();
+        } finally {
+            stagingTimer.stop();
+        }
 
         // Create commit
-        PersonIdent author = new PersonIdent(
+        PersonIdent author = createIdent(commit);
+
+        BuildMetrics.Timer commitTimer = metrics.time(Phase.COMMIT);
+        try {
+            commitIndex(index, commit.getMessage(), author);
+        } finally {
+            commitTimer.stop();
+        }
+    }
+
+    /**
+     * Commits the staged index on top of the previous commit. Unlike the porcelain commit,
+     * this takes no ref lock and writes no reflog entry; only the id of the new commit
+     * is kept, and the branch moves to it at the next checkpoint or in {@link #finish()}.
+     */
+    private void commitIndex(DirCache index, String message, PersonIdent author) throws IOException {
+        CommitBuilder builder = new CommitBuilder();
+        builder.setTreeId(index.writeTree(indexInserter));
+        if (indexHead != null) {
+            builder.setParentId(indexHead);
+        }
+        builder.setAuthor(author);
+        builder.setCommitter(author);
+        builder.setMessage(message);
+        indexHead = indexInserter.insert(builder);
+    }
+
+    /**
+     * Writes a commit without touching the working tree or the index.
+     */
+    private void writeCommitToObjectDatabase(Commit commit) throws IOException {
+        ZonedDateTime timestamp = commit.getTimestamp();
+        long epochSecond = timestamp.toEpochSecond();
+        int offsetMinutes = timestamp.getOffset().getTotalSeconds() / 60;
+
+        if (commit.isMerge()) {
+            objectWriter.merge(commit.getBranch(), commit.getEncodedMessage(), commit.getAuthor(),
+                    epochSecond, offsetMinutes);
+            return;
+        }
+
+        objectWriter.appendFile(commit.getBranch(), commit.getFilePath(),
+                commit.getFileContent().getBytes(StandardCharsets.UTF_8));
+        objectWriter.commit(commit.getBranch(), commit.getEncodedMessage(), commit.getAuthor(),
+                epochSecond, offsetMinutes);
+    }
+
+    /**
+     * Creates the author/committer identity for a commit.
+     */
+    private PersonIdent createIdent(Commit commit) {
+        return new PersonIdent(
                 commit.getAuthor().getName(),
                 commit.getAuthor().getEmail(),
                 commit.getTimestamp().toInstant().toEpochMilli(),
                 commit.getTimestamp().getOffset().getTotalSeconds() / 60
         );
-
-        git.commit()
-                .setMessage(commit.getMessage())
-                .setAuthor(author)
-                .setCommitter(author)
-                .call();
     }
 
     /**
@@ -118,27 +493,217 @@ public class GitRepositoryManager {
      */
     public void writeCommits(List<Commit> commits) throws IOException, GitAPIException {
         logger.info("Writing {} commits to repository...", commits.size());
+        writeCommits(commits.iterator());
+    }
 
-        int progress = 0;
-        for (Commit commit : commits) {
+    /**
+     * Writes commits to the repository as they arrive, e.g. from a {@code CommitStream}.
+     * A checkpoint is taken every checkpoint interval, or after it at the first commit
+     * with no feature branch open. WORKING_TREE checkpoints only move the branch; IN_MEMORY
+     * builds have nothing on disk to resume from and take none.
+     * @return the number of commits written
+     */
+    public long writeCommits(Iterator<Commit> commits) throws IOException, GitAPIException {
+        long written = 0;
+        while (commits.hasNext()) {
+            Commit commit = commits.next();
+            long start = System.nanoTime();
             writeCommit(commit);
-            progress++;
+            metrics.recordCommit(System.nanoTime() - start);
+            progress.recordProgress(1);
+            written++;
+            commitsWritten++;
 
-            if (progress % 100 == 0) {
-                logger.info("Progress: {}/{} commits written", progress, commits.size());
+            if (memoryRepository == null && config.getCheckpointInterval() > 0
+                    && commitsWritten % config.getCheckpointInterval() == 0) {
+                checkpointDue = true;
+            }
+            // Unmerged branches are not reachable from the branch ref, so wait for their merges
+            if (checkpointDue && (objectWriter == null || objectWriter.getOpenBranches() == 0)) {
+                BuildMetrics.Timer checkpointTimer = metrics.time(Phase.CHECKPOINT);
+                try {
+                    checkpoint();
+                } finally {
+                    checkpointTimer.stop();
+                }
+                checkpointDue = false;
             }
         }
 
-        logger.info("All {} commits written successfully", commits.size());
+        logger.info("All {} commits written successfully", written);
+        return written;
+    }
+
+    /**
+     * Flushes everything written so far, moves the branch to the last commit and records
+     * the position in the checkpoint journal. The journal is written last, so it never
+     * names a commit that is not on disk; with the DURABLE profile that also holds after
+     * an operating system crash, as the packs are synced first. The FAST profile does not
+     * sync the journal.
+     */
+    private void checkpoint() throws IOException {
+        if (objectWriter == null) {
+            // WORKING_TREE builds cannot be resumed, so no journal is needed
+            indexInserter.flush();
+            ObjectDatabaseWriter.updateRef(git.getRepository(), branch, indexHead,
+                    reflogMessage("checkpoint: " + commitsWritten + " commits"));
+            return;
+        }
+        if (durability == Durability.DURABLE && deltaPacker != null) {
+            // Loose objects are synced by JGit as they are written, pack inserters never sync
+            objectWriter.flush();
+            FileSync.syncTree(((ObjectDirectory) git.getRepository().getObjectDatabase()).getPackDirectory().toPath());
+        }
+        objectWriter.publish(branch, reflogMessage("checkpoint: " + commitsWritten + " commits"));
+        new Checkpoint(config.getSeed(), fingerprint, config.getStartDate(), config.getEndDate(),
+                commitsWritten, objectWriter.getHead(),
+                deltaPacker != null ? deltaPacker.getBasePacks() : Collections.emptySet(), baseCommit)
+                .save(git.getRepository().getDirectory(), durability != Durability.FAST);
+        logger.debug("Checkpoint after {} commits", commitsWritten);
+    }
+
+    /**
+     * Completes the write. In OBJECT_DATABASE and PACK mode this flushes the inserted
+     * objects, delta-compresses the run's pack (PACK only), moves the branch to the
+     * last commit and, unless the repository is bare, checks that commit out once.
+     * IN_MEMORY mode first writes the whole repository out, see {@link #flushToDisk()}.
+     * WORKING_TREE mode only moves the branch; the index and files already match it.
+     * Unless the durability profile is DEFAULT, the repository is then synced to disk.
+     */
+    public void finish() throws IOException, GitAPIException {
+        if (objectWriter == null) {
+            if (indexHead != null) {
+                BuildMetrics.Timer refUpdateTimer = metrics.time(Phase.REF_UPDATE);
+                try {
+                    indexInserter.flush();
+                    ObjectDatabaseWriter.updateRef(git.getRepository(), branch, indexHead,
+                            reflogMessage("commit: generated history"));
+                } finally {
+                    refUpdateTimer.stop();
+                }
+            }
+        } else if (memoryRepository != null) {
+            flushToDisk();
+        } else {
+            finishObjectDatabase();
+        }
+        syncRepository();
+    }
+
+    /**
+     * Completes an OBJECT_DATABASE or PACK write.
+     */
+    private void finishObjectDatabase() throws IOException, GitAPIException {
+        BuildMetrics.Timer flushTimer = metrics.time(Phase.FLUSH);
+        try {
+            objectWriter.flush();
+        } finally {
+            flushTimer.stop();
+        }
+        // Objects reachable from the extended commit are already packed
+        if (deltaPacker != null && !objectWriter.getHead().equals(baseCommit)) {
+            BuildMetrics.Timer repackTimer = metrics.time(Phase.REPACK);
+            try {
+                deltaPacker.repack(objectWriter.getHead(),
+                        baseCommit != null ? Collections.singleton(baseCommit) : PackWriter.NONE);
+            } finally {
+                repackTimer.stop();
+            }
+        }
+
+        BuildMetrics.Timer refUpdateTimer = metrics.time(Phase.REF_UPDATE);
+        try {
+            objectWriter.publish(branch, reflogMessage("commit: generated history"));
+        } finally {
+            refUpdateTimer.stop();
+        }
+
+        if (!bare) {
+            BuildMetrics.Timer checkoutTimer = metrics.time(Phase.CHECKOUT);
+            try {
+                git.reset().setMode(ResetCommand.ResetType.HARD).call();
+            } finally {
+                checkoutTimer.stop();
+            }
+            logger.info("Checked out {} into the working tree", objectWriter.getHead().name());
+        }
+        Checkpoint.delete(git.getRepository().getDirectory());
+        // Only now is nothing reading from the packs the repack replaced
+        if (deltaPacker != null) {
+            deltaPacker.deleteSupersededPacks();
+        }
+    }
+
+    /**
+     * Writes an in-memory build to the repository directory in one sequential pass:
+     * git init, a single delta-compressed pack with its index, the branch ref and,
+     * unless the repository is bare, the checkout of the last commit.
+     */
+    private void flushToDisk() throws IOException, GitAPIException {
+        BuildMetrics.Timer flushTimer = metrics.time(Phase.FLUSH);
+        try {
+            objectWriter.flush();
+        } finally {
+            flushTimer.stop();
+        }
+        ObjectId head = objectWriter.getHead();
+
+        Repository repository;
+        File packDirectory;
+        BuildMetrics.Timer initializeTimer = metrics.time(Phase.INITIALIZE);
+        try {
+            initGitRepository(config);
+            repository = git.getRepository();
+            packDirectory = ((ObjectDirectory) repository.getObjectDatabase()).getPackDirectory();
+            if (!packDirectory.isDirectory() && !packDirectory.mkdirs()) {
+                throw new IOException("Failed to create pack directory: " + packDirectory);
+            }
+        } finally {
+            initializeTimer.stop();
+        }
+        BuildMetrics.Timer repackTimer = metrics.time(Phase.REPACK);
+        try {
+            DeltaPacker packer = new DeltaPacker(memoryRepository, packDirectory);
+            packer.setFsync(durability == Durability.DURABLE);
+            packer.repack(head, PackWriter.NONE);
+        } finally {
+            repackTimer.stop();
+        }
+
+        BuildMetrics.Timer refUpdateTimer = metrics.time(Phase.REF_UPDATE);
+        try {
+            ObjectDatabaseWriter.updateRef(repository, branch, head, reflogMessage("commit: generated history"));
+        } finally {
+            refUpdateTimer.stop();
+        }
+        if (!bare) {
+            BuildMetrics.Timer checkoutTimer = metrics.time(Phase.CHECKOUT);
+            try {
+                git.reset().setMode(ResetCommand.ResetType.HARD).call();
+            } finally {
+                checkoutTimer.stop();
+            }
+            logger.info("Checked out {} into the working tree", head.name());
+        }
+        logger.info("Wrote in-memory repository to: {}", repoDir.getAbsolutePath());
     }
 
     /**
      * Closes the repository.
      */
     public void close() {
+        if (objectWriter != null) {
+            objectWriter.close();
+        }
+        if (indexInserter != null) {
+            indexInserter.close();
+        }
         if (git != null) {
             git.close();
         }
+        if (memoryRepository != null) {
+            memoryRepository.close();
+        }
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.model.Author;
+import org.eclipse.jgit.lib.PersonIdent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the encoded {@code name <email> } prefix of each author's identity line.
+ * Between commits only the time and zone of an identity change, so a header is the
+ * cached prefix followed by {@link #writeTime}, which formats the rest in place.
+ */
+final class IdentityCache {
+    /**
+     * Longest output of {@link #writeTime}: sign and 19 digits, a space, the zone sign and four digits.
+     */
+    static final int MAX_TIME_LENGTH = 26;
+
+    private final Map<Author, byte[]> prefixes = new HashMap<>();
+    private Author lastAuthor;
+    private byte[] lastPrefix;
+
+    /**
+     * Gets the encoded identity prefix of an author, including the trailing space.
+     * The array is shared and must not be modified.
+     */
+    byte[] get(Author author) {
+        if (author == lastAuthor) {
+            return lastPrefix;
+        }
+        byte[] prefix = prefixes.computeIfAbsent(author, a -> encode(a.getName(), a.getEmail()));
+        lastAuthor = author;
+        lastPrefix = prefix;
+        return prefix;
+    }
+
+    /**
+     * Encodes an identity prefix the way JGit writes it, with name and email sanitized.
+     */
+    static byte[] encode(String name, String email) {
+        StringBuilder prefix = new StringBuilder(name.length() + email.length() + 4);
+        PersonIdent.appendSanitized(prefix, name);
+        prefix.append(" <");
+        PersonIdent.appendSanitized(prefix, email);
+        prefix.append("> ");
+        return prefix.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes {@code <seconds> <+|-HHMM>} at the given position, which must leave room
+     * for {@link #MAX_TIME_LENGTH} bytes.
+     * @return the position after the written bytes
+     */
+    static int writeTime(byte[] buffer, int position, long epochSecond, int offsetMinutes) {
+        if (epochSecond < 0) {
+            buffer[position++] = '-';
+            epochSecond = -epochSecond;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + epochSecond % 10);
+            epochSecond /= 10;
+        } while (epochSecond > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+
+        buffer[position++] = ' ';
+        buffer[position++] = (byte) (offsetMinutes < 0 ? '-' : '+');
+        int offset = Math.abs(offsetMinutes);
+        int hours = offset / 60;
+        int minutes = offset % 60;
+        buffer[position++] = (byte) ('0' + hours / 10);
+        buffer[position++] = (byte) ('0' + hours % 10);
+        buffer[position++] = (byte) ('0' + minutes / 10);
+        buffer[position++] = (byte) ('0' + minutes % 10);
+        return position;
+    }
+}
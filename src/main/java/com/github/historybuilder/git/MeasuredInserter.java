@@ -0,0 +1,55 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.tracking.BuildMetrics;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Inserter that counts the objects and bytes passing through to another inserter
+ * and adds the time spent inserting them to the HASHING phase. It may be used by a
+ * hashing thread; the metrics are safe to update concurrently.
+ */
+final class MeasuredInserter extends ObjectInserter.Filter {
+    private final ObjectInserter delegate;
+    private final BuildMetrics metrics;
+
+    MeasuredInserter(ObjectInserter delegate, BuildMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected ObjectInserter delegate() {
+        return delegate;
+    }
+
+    @Override
+    public ObjectId insert(int type, byte[] data) throws IOException {
+        return insert(type, data, 0, data.length);
+    }
+
+    @Override
+    public ObjectId insert(int type, byte[] data, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        ObjectId id = delegate.insert(type, data, off, len);
+        record(len, start);
+        return id;
+    }
+
+    @Override
+    public ObjectId insert(int type, long length, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        ObjectId id = delegate.insert(type, length, in);
+        record(length, start);
+        return id;
+    }
+
+    private void record(long length, long start) {
+        metrics.addTime(BuildMetrics.Phase.HASHING, System.nanoTime() - start);
+        metrics.addObjectsInserted(1);
+        metrics.addBytesWritten(length);
+    }
+}
@@ -0,0 +1,447 @@
+package com.github.historybuilder.git;
+
+import com.github.historybuilder.model.Author;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.ReceiveCommand;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Writes commits straight into the object database.
+ * Blobs, trees and commits are created through an ObjectInserter and parents are
+ * chained in memory, so no working tree, index or ref is touched per commit.
+ *
+ * <p>With more than one hashing thread, blobs and trees are hashed and deflated on a
+ * worker pool, each worker using its own inserter. Only the commit objects form a
+ * chain, so the calling thread acts as sequencer: it links each commit to its parent
+ * once the commit's tree is ready, keeping a bounded number of commits in flight.
+ *
+ * <p>Commits may also go to feature branches. A branch forks from the mainline at its
+ * first commit and keeps its own files and tip; its blobs and trees are hashed
+ * alongside the mainline's, and its merge commit is linked once both tips are.
+ */
+public class ObjectDatabaseWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ObjectDatabaseWriter.class);
+
+    /**
+     * Commits allowed to wait for their trees, per hashing thread.
+     */
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final Repository repository;
+    private final ObjectInserter inserter;
+    private final ObjectReader reader;
+    private final ContentStore contents;
+    private final Map<String, Future<ObjectId>> blobs = new TreeMap<>();
+    private final CommitEncoder encoder = new CommitEncoder();
+    private final IdentityCache identities = new IdentityCache();
+    private ObjectId head;
+    private final Map<String, Branch> branches = new HashMap<>();
+
+    private final ExecutorService hashingPool;
+    private final ThreadLocal<ObjectInserter> workerInserter;
+    private final List<ObjectInserter> workerInserters = new CopyOnWriteArrayList<>();
+    private final Deque<PendingCommit> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    public ObjectDatabaseWriter(Repository repository) {
+        this(repository, repository::newObjectInserter, 1);
+    }
+
+    /**
+     * Creates a writer whose inserters come from the given factory, e.g. pack inserters.
+     * One inserter is used by the calling thread; with more than one hashing thread each
+     * worker creates its own, so the factory must hand out independent inserters.
+     */
+    public ObjectDatabaseWriter(Repository repository, Supplier<ObjectInserter> inserters, int hashingThreads) {
+        this.repository = repository;
+        this.inserter = inserters.get();
+        this.reader = inserter.newReader();
+
+        if (hashingThreads > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.hashingPool = Executors.newFixedThreadPool(hashingThreads, runnable -> {
+                Thread thread = new Thread(runnable, "object-hasher-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.workerInserter = ThreadLocal.withInitial(() -> {
+                ObjectInserter workerOwned = inserters.get();
+                workerInserters.add(workerOwned);
+                return workerOwned;
+            });
+            this.maxPending = hashingThreads * PENDING_PER_THREAD;
+            // Worker objects are not visible to our reader before a flush, so inactive bodies
+            // are released at flushes instead of on rotation
+            this.contents = new ContentStore(reader, false);
+            logger.info("Hashing objects on {} threads", hashingThreads);
+        } else {
+            this.hashingPool = null;
+            this.workerInserter = null;
+            this.maxPending = 0;
+            this.contents = new ContentStore(reader);
+        }
+    }
+
+    /**
+     * Sets the content of a file for the next commit.
+     */
+    public void putFile(String path, byte[] content) throws IOException {
+        contents.put(path, content);
+        blobs.put(path, CompletableFuture.completedFuture(inserter.insert(Constants.OBJ_BLOB, content)));
+    }
+
+    /**
+     * Appends data to a file for the next commit, creating the file if needed.
+     * Only the appended bytes are copied; the blob is hashed from the held body.
+     */
+    public void appendFile(String path, byte[] data) throws IOException {
+        appendFile(contents, blobs, path, data);
+    }
+
+    /**
+     * Appends data to a file on a feature branch, or on the mainline when branch is null.
+     * A branch not seen before forks from the current mainline files.
+     */
+    public void appendFile(String branch, String path, byte[] data) throws IOException {
+        if (branch == null) {
+            appendFile(path, data);
+            return;
+        }
+        Branch lane = branches.computeIfAbsent(branch, name -> new Branch(contents.fork(), new TreeMap<>(blobs)));
+        appendFile(lane.contents, lane.blobs, path, data);
+    }
+
+    private void appendFile(ContentStore store, Map<String, Future<ObjectId>> files, String path, byte[] data)
+            throws IOException {
+        if (hashingPool == null) {
+            Future<ObjectId> existing = files.get(path);
+            ContentStore.Buffer body = store.append(path, data, existing != null ? await(existing) : null);
+            ObjectId blob = inserter.insert(Constants.OBJ_BLOB, body.array(), 0, body.length());
+            files.put(path, CompletableFuture.completedFuture(blob));
+            return;
+        }
+
+        // Bodies are only released at flushes, so a body that is not held has a readable blob
+        Future<ObjectId> existing = store.holds(path) ? null : files.get(path);
+        ContentStore.Buffer body = store.append(path, data, existing != null ? await(existing) : null);
+        // The body keeps growing while the worker hashes, but never below its current length
+        byte[] bytes = body.array();
+        int length = body.length();
+        files.put(path, hashingPool.submit(() -> workerInserter.get().insert(Constants.OBJ_BLOB, bytes, 0, length)));
+    }
+
+    /**
+     * Creates a commit of the current files on top of the previous one, with the given
+     * identity as author and committer.
+     */
+    public void commit(String message, PersonIdent ident) throws IOException {
+        commit(null, null, message.getBytes(StandardCharsets.UTF_8),
+                IdentityCache.encode(ident.getName(), ident.getEmailAddress()),
+                ident.getWhenAsInstant().getEpochSecond(), ident.getTimeZoneOffset());
+    }
+
+    /**
+     * Creates a commit of the current files on top of the previous one, authored and
+     * committed by the given author at the given time. The message is already UTF-8
+     * encoded and is copied into the commit object as is; it must not be modified
+     * until the commit is linked.
+     * With parallel hashing the commit is linked once its tree is ready, so
+     * {@link #getHead()} may lag behind until {@link #flush()}.
+     */
+    public void commit(byte[] message, Author author, long epochSecond, int offsetMinutes) throws IOException {
+        commit(null, null, message, identities.get(author), epochSecond, offsetMinutes);
+    }
+
+    /**
+     * Creates a commit of the branch's files on top of the branch's previous commit, or
+     * on the mainline when branch is null. The first commit of a branch has the mainline
+     * commit before it as parent.
+     */
+    public void commit(String branch, byte[] message, Author author, long epochSecond, int offsetMinutes)
+            throws IOException {
+        if (branch == null) {
+            commit(message, author, epochSecond, offsetMinutes);
+            return;
+        }
+        Branch lane = branches.get(branch);
+        if (lane == null) {
+            throw new IllegalStateException("Branch " + branch + " has no files to commit");
+        }
+        commit(lane, null, message, identities.get(author), epochSecond, offsetMinutes);
+    }
+
+    /**
+     * Merges a branch into the mainline: what the branch appended to each file is
+     * appended to the mainline's body, and the merge commit has the mainline and the
+     * branch tips as parents. The branch is closed afterwards.
+     */
+    public void merge(String branch, byte[] message, Author author, long epochSecond, int offsetMinutes)
+            throws IOException {
+        Branch lane = branches.remove(branch);
+        if (lane == null) {
+            throw new IllegalStateException("Branch " + branch + " has no commits to merge");
+        }
+        for (String path : lane.contents.appendedPaths()) {
+            appendFile(path, lane.contents.appended(path));
+        }
+        commit(null, lane, message, identities.get(author), epochSecond, offsetMinutes);
+    }
+
+    /**
+     * Gets the number of branches with commits that are not merged yet.
+     */
+    public int getOpenBranches() {
+        return branches.size();
+    }
+
+    private void commit(Branch lane, Branch merged, byte[] message, byte[] identity, long epochSecond,
+                        int offsetMinutes) throws IOException {
+        Map<String, Future<ObjectId>> current = lane != null ? lane.blobs : blobs;
+        if (hashingPool == null) {
+            link(writeTree(current, inserter), lane, merged, message, identity, epochSecond, offsetMinutes);
+            return;
+        }
+
+        // Tasks run in submission order, so the blobs a tree waits for are already being hashed
+        Map<String, Future<ObjectId>> files = new TreeMap<>(current);
+        Future<ObjectId> tree = hashingPool.submit(() -> writeTree(files, workerInserter.get()));
+        pending.add(new PendingCommit(tree, lane, merged, message, identity, epochSecond, offsetMinutes));
+        while (pending.size() > maxPending) {
+            link(pending.poll());
+        }
+    }
+
+    /**
+     * Continues the chain on top of an existing commit, e.g. one recorded by a checkpoint.
+     * The commit's files become the current files; their bodies are loaded when first
+     * appended to.
+     */
+    public void resume(ObjectId commitId) throws IOException {
+        linkPending();
+        blobs.clear();
+        branches.clear();
+        try (RevWalk walk = new RevWalk(reader);
+             TreeWalk files = new TreeWalk(reader)) {
+            files.addTree(walk.parseCommit(commitId).getTree());
+            files.setRecursive(true);
+            while (files.next()) {
+                blobs.put(files.getPathString(), CompletableFuture.completedFuture(files.getObjectId(0)));
+            }
+        }
+        head = commitId;
+    }
+
+    /**
+     * Makes all inserted objects durable and visible to other readers.
+     */
+    public void flush() throws IOException {
+        linkPending();
+        // Worker objects first: a commit must never become visible before what it references
+        for (ObjectInserter workerOwned : workerInserters) {
+            workerOwned.flush();
+        }
+        inserter.flush();
+        if (hashingPool != null) {
+            // Every blob is readable now, so bodies rotated away from can be reloaded
+            contents.releaseInactive();
+        }
+    }
+
+    /**
+     * Flushes pending objects and points the given ref at the last commit.
+     * @param reflogMessage the reflog entry, or null to write none
+     */
+    public void publish(String refName, String reflogMessage) throws IOException {
+        flush();
+        if (head != null) {
+            updateRef(repository, refName, head, reflogMessage);
+        }
+    }
+
+    /**
+     * Points a ref of the given repository at a commit, whatever it pointed at before.
+     * The ref goes through a {@link BatchRefUpdate}: one locked write of the refs and a
+     * single reflog entry, instead of the loose ref and log that each commit would
+     * otherwise rewrite. The update fails if another process moved the ref meanwhile.
+     * @param reflogMessage the reflog entry, or null to write none
+     */
+    static void updateRef(Repository repository, String refName, ObjectId commitId, String reflogMessage)
+            throws IOException {
+        Ref current = repository.exactRef(refName);
+        ObjectId oldId = current != null && current.getObjectId() != null ? current.getObjectId() : ObjectId.zeroId();
+        if (oldId.equals(commitId)) {
+            logger.info("{} is already at {}", refName, commitId.name());
+            return;
+        }
+
+        BatchRefUpdate update = repository.getRefDatabase().newBatchUpdate();
+        update.setAtomic(true);
+        update.setAllowNonFastForwards(true);
+        if (reflogMessage != null) {
+            update.setRefLogMessage(reflogMessage, false);
+        } else {
+            update.disableRefLog();
+        }
+        ReceiveCommand command = new ReceiveCommand(oldId, commitId, refName);
+        update.addCommand(command);
+        try (RevWalk walk = new RevWalk(repository)) {
+            update.execute(walk, NullProgressMonitor.INSTANCE);
+        }
+
+        if (command.getResult() != ReceiveCommand.Result.OK) {
+            throw new IOException("Failed to update " + refName + ": " + command.getResult()
+                    + (command.getMessage() != null ? " (" + command.getMessage() + ")" : ""));
+        }
+        logger.info("Updated {} to {}", refName, commitId.name());
+    }
+
+    /**
+     * Gets the last commit linked into the chain, or null if nothing was committed yet.
+     */
+    public ObjectId getHead() {
+        return head;
+    }
+
+    private void linkPending() throws IOException {
+        while (!pending.isEmpty()) {
+            link(pending.poll());
+        }
+    }
+
+    private void link(PendingCommit commit) throws IOException {
+        link(await(commit.tree), commit.branch, commit.merged, commit.message, commit.identity,
+                commit.epochSecond, commit.offsetMinutes);
+    }
+
+    /**
+     * Links a commit to its parents. Commits are linked in the order they were made, so
+     * a branch's first commit finds the mainline at its fork point and a merge finds the
+     * branch's last commit already linked.
+     */
+    private void link(ObjectId tree, Branch lane, Branch merged, byte[] message, byte[] identity,
+                      long epochSecond, int offsetMinutes) throws IOException {
+        ObjectId parent = lane != null && lane.head != null ? lane.head : head;
+        encoder.encode(tree, parent, merged != null ? merged.head : null, identity, epochSecond, offsetMinutes,
+                message);
+        ObjectId commitId = inserter.insert(Constants.OBJ_COMMIT, encoder.array(), 0, encoder.length());
+        if (lane != null) {
+            lane.head = commitId;
+        } else {
+            head = commitId;
+        }
+    }
+
+    /**
+     * Builds the tree for the given files. An in-core DirCache takes care of
+     * sub-directories and git's entry ordering without touching the on-disk index.
+     */
+    private static ObjectId writeTree(Map<String, Future<ObjectId>> files, ObjectInserter target) throws IOException {
+        DirCache index = DirCache.newInCore();
+        DirCacheBuilder builder = index.builder();
+        for (Map.Entry<String, Future<ObjectId>> file : files.entrySet()) {
+            DirCacheEntry entry = new DirCacheEntry(file.getKey());
+            entry.setFileMode(FileMode.REGULAR_FILE);
+            entry.setObjectId(await(file.getValue()));
+            builder.add(entry);
+        }
+        builder.finish();
+        return index.writeTree(target);
+    }
+
+    private static ObjectId await(Future<ObjectId> object) throws IOException {
+        try {
+            return object.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing objects");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to insert object", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (hashingPool != null) {
+            hashingPool.shutdownNow();
+            for (ObjectInserter workerOwned : workerInserters) {
+                workerOwned.close();
+            }
+        }
+        reader.close();
+        inserter.close();
+    }
+
+    /**
+     * A feature branch: its files and the last commit linked on it.
+     */
+    private static final class Branch {
+        private final ContentStore contents;
+        private final Map<String, Future<ObjectId>> blobs;
+        private ObjectId head;
+
+        Branch(ContentStore contents, Map<String, Future<ObjectId>> blobs) {
+            this.contents = contents;
+            this.blobs = blobs;
+        }
+    }
+
+    /**
+     * A commit waiting for its tree.
+     */
+    private static final class PendingCommit {
+        private final Future<ObjectId> tree;
+        private final Branch branch;
+        private final Branch merged;
+        private final byte[] message;
+        private final byte[] identity;
+        private final long epochSecond;
+        private final int offsetMinutes;
+
+        PendingCommit(Future<ObjectId> tree, Branch branch, Branch merged, byte[] message, byte[] identity,
+                      long epochSecond, int offsetMinutes) {
+            this.tree = tree;
+            this.branch = branch;
+            this.merged = merged;
+            this.message = message;
+            this.identity = identity;
+            this.epochSecond = epochSecond;
+            this.offsetMinutes = offsetMinutes;
+        }
+    }
+}
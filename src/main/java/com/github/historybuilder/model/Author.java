@@ -1,6 +1,7 @@
 package com.github.historybuilder.model;
 
 import java.time.ZonedDateTime;
+import java.util.Objects;
 
 /**
  * Represents an author with name and email.
@@ -30,6 +31,24 @@ public class Author {
         this.email = email;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Author)) {
+            return false;
+        }
+        Author other = (Author) o;
+        return Objects.equals(name, other.name) && Objects.equals(email, other.email);
+    }
+
+    @Override
+    public int hashCode() {
+        // Looked up per commit by the identity caches; avoid the varargs array of Objects.hash
+        return 31 * Objects.hashCode(name) + Objects.hashCode(email);
+    }
+
     @Override
     public String toString() {
         return "Author{" +
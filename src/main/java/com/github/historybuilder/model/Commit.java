@@ -1,5 +1,6 @@
 package com.github.historybuilder.model;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 
 /**
@@ -8,9 +9,12 @@ import java.time.ZonedDateTime;
 public class Commit {
     private ZonedDateTime timestamp;
     private String message;
+    private byte[] encodedMessage;
     private Author author;
     private String filePath;
     private String fileContent;
+    private String branch;
+    private boolean merge;
 
     public Commit(ZonedDateTime timestamp, String message, Author author) {
         this.timestamp = timestamp;
@@ -32,6 +36,26 @@ public class Commit {
 
     public void setMessage(String message) {
         this.message = message;
+        this.encodedMessage = null;
+    }
+
+    /**
+     * Gets the UTF-8 encoded message. Commits from a plan share the dictionary's
+     * pre-encoded array, which must not be modified.
+     */
+    public byte[] getEncodedMessage() {
+        if (encodedMessage == null) {
+            encodedMessage = message.getBytes(StandardCharsets.UTF_8);
+        }
+        return encodedMessage;
+    }
+
+    /**
+     * Sets the message together with its UTF-8 encoding.
+     */
+    public void setMessage(String message, byte[] encodedMessage) {
+        this.message = message;
+        this.encodedMessage = encodedMessage;
     }
 
     public Author getAuthor() {
@@ -58,6 +82,30 @@ public class Commit {
         this.fileContent = fileContent;
     }
 
+    /**
+     * Gets the feature branch the commit is on, or null for the mainline. For a merge
+     * commit this is the branch being merged into the mainline.
+     */
+    public String getBranch() {
+        return branch;
+    }
+
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+
+    /**
+     * Checks whether this commit merges its branch into the mainline. A merge carries
+     * no file change of its own; its tree combines both sides.
+     */
+    public boolean isMerge() {
+        return merge;
+    }
+
+    public void setMerge(boolean merge) {
+        this.merge = merge;
+    }
+
     @Override
     public String toString() {
         return "Commit{" +
@@ -0,0 +1,233 @@
+package com.github.historybuilder.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Planned commits stored column-wise in primitive arrays.
+ * A commit takes 18 bytes: its time as seconds from the plan's base, the zone offset,
+ * message, author and path ids into a shared {@link PlanDictionary}, and the time of
+ * day written into its log line. Plans with feature branches add 4 bytes per commit
+ * for its lane; linear plans never allocate that column. {@link Commit} objects are
+ * only created on request, when a commit is written.
+ */
+public final class CommitPlan {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final PlanDictionary dictionary;
+    private final long baseEpochSecond;
+    private int[] seconds;
+    private short[] offsetMinutes;
+    private int[] messageIds;
+    private short[] authorIds;
+    private short[] pathIds;
+    private int[] logSeconds;
+    /**
+     * Lane of each commit: 0 on the mainline, branch id + 1 on a branch, and
+     * -(branch id + 1) for the merge of a branch. Null while all commits are on the mainline.
+     */
+    private int[] lanes;
+    private int size;
+
+    /**
+     * Creates an empty plan.
+     * @param baseEpochSecond instant that commit times are stored relative to; any
+     *                        instant within 68 years of all planned commits works
+     */
+    public CommitPlan(PlanDictionary dictionary, long baseEpochSecond) {
+        this.dictionary = dictionary;
+        this.baseEpochSecond = baseEpochSecond;
+        this.seconds = new int[INITIAL_CAPACITY];
+        this.offsetMinutes = new short[INITIAL_CAPACITY];
+        this.messageIds = new int[INITIAL_CAPACITY];
+        this.authorIds = new short[INITIAL_CAPACITY];
+        this.pathIds = new short[INITIAL_CAPACITY];
+        this.logSeconds = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends a commit.
+     * @param logSecond second of the day written into the commit's log line
+     */
+    public void append(long epochSecond, int offsetMinutes, int messageId, int authorId, int pathId, int logSecond) {
+        append(epochSecond, offsetMinutes, messageId, authorId, pathId, logSecond, 0);
+    }
+
+    /**
+     * Appends a commit on a feature branch.
+     * @param branchId branch id in the dictionary
+     */
+    public void appendOnBranch(long epochSecond, int offsetMinutes, int messageId, int authorId, int pathId,
+                               int logSecond, int branchId) {
+        append(epochSecond, offsetMinutes, messageId, authorId, pathId, logSecond, branchId + 1);
+    }
+
+    /**
+     * Appends the merge of a feature branch into the mainline. Merges change no file
+     * of their own.
+     */
+    public void appendMerge(long epochSecond, int offsetMinutes, int messageId, int authorId, int branchId) {
+        append(epochSecond, offsetMinutes, messageId, authorId, 0, 0, -(branchId + 1));
+    }
+
+    private void append(long epochSecond, int offsetMinutes, int messageId, int authorId, int pathId,
+                        int logSecond, int lane) {
+        if (authorId > Short.MAX_VALUE || pathId > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many authors or paths for a commit plan");
+        }
+        ensureCapacity(size + 1);
+        this.seconds[size] = Math.toIntExact(epochSecond - baseEpochSecond);
+        this.offsetMinutes[size] = (short) offsetMinutes;
+        this.messageIds[size] = messageId;
+        this.authorIds[size] = (short) authorId;
+        this.pathIds[size] = (short) pathId;
+        this.logSeconds[size] = logSecond;
+        if (lane != 0) {
+            if (lanes == null) {
+                lanes = new int[seconds.length];
+            }
+            lanes[size] = lane;
+        }
+        size++;
+    }
+
+    /**
+     * Appends all commits of another plan built on the same dictionary.
+     */
+    public void appendAll(CommitPlan other) {
+        if (other.dictionary != dictionary) {
+            throw new IllegalArgumentException("Plans use different dictionaries");
+        }
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.size; i++) {
+            seconds[size + i] = Math.toIntExact(other.getEpochSecond(i) - baseEpochSecond);
+        }
+        System.arraycopy(other.offsetMinutes, 0, offsetMinutes, size, other.size);
+        System.arraycopy(other.messageIds, 0, messageIds, size, other.size);
+        System.arraycopy(other.authorIds, 0, authorIds, size, other.size);
+        System.arraycopy(other.pathIds, 0, pathIds, size, other.size);
+        System.arraycopy(other.logSeconds, 0, logSeconds, size, other.size);
+        if (other.lanes != null) {
+            if (lanes == null) {
+                lanes = new int[seconds.length];
+            }
+            System.arraycopy(other.lanes, 0, lanes, size, other.size);
+        }
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PlanDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public long getEpochSecond(int index) {
+        return baseEpochSecond + seconds[index];
+    }
+
+    public int getOffsetMinutes(int index) {
+        return offsetMinutes[index];
+    }
+
+    public int getMessageId(int index) {
+        return messageIds[index];
+    }
+
+    public int getAuthorId(int index) {
+        return authorIds[index];
+    }
+
+    public int getPathId(int index) {
+        return pathIds[index];
+    }
+
+    public int getLogSecond(int index) {
+        return logSeconds[index];
+    }
+
+    /**
+     * Gets the id of the branch a commit is on or merges, or -1 for a mainline commit.
+     */
+    public int getBranchId(int index) {
+        int lane = lanes != null ? lanes[index] : 0;
+        return Math.abs(lane) - 1;
+    }
+
+    public boolean isMerge(int index) {
+        return lanes != null && lanes[index] < 0;
+    }
+
+    /**
+     * Gets the local date of a commit, which is also the date in its log line.
+     */
+    public LocalDate getLocalDate(int index) {
+        return LocalDate.ofEpochDay(getLocalEpochDay(index));
+    }
+
+    /**
+     * Gets the local date of a commit as an epoch day, without creating a date.
+     */
+    public long getLocalEpochDay(int index) {
+        long localSecond = getEpochSecond(index) + offsetMinutes[index] * 60L;
+        return Math.floorDiv(localSecond, SECONDS_PER_DAY);
+    }
+
+    public ZonedDateTime getTimestamp(int index) {
+        return Instant.ofEpochSecond(getEpochSecond(index))
+                .atZone(ZoneOffset.ofTotalSeconds(offsetMinutes[index] * 60));
+    }
+
+    /**
+     * Materializes one commit. The file content is the log line built by the given
+     * formatter from the commit's date and log second; merges have no file content.
+     */
+    public Commit toCommit(int index, LogLineFormatter formatter) {
+        int messageId = messageIds[index];
+        Commit commit = new Commit(getTimestamp(index), null, dictionary.getAuthor(authorIds[index]));
+        commit.setMessage(dictionary.getMessage(messageId), dictionary.getEncodedMessage(messageId));
+
+        int branchId = getBranchId(index);
+        if (branchId >= 0) {
+            commit.setBranch(dictionary.getBranch(branchId));
+        }
+        if (isMerge(index)) {
+            commit.setMerge(true);
+            return commit;
+        }
+
+        commit.setFilePath(dictionary.getPath(pathIds[index]));
+        commit.setFileContent(formatter.format(getLocalDate(index), logSeconds[index]));
+        return commit;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= seconds.length) {
+            return;
+        }
+        int capacity = Math.max(seconds.length * 2, required);
+        seconds = Arrays.copyOf(seconds, capacity);
+        offsetMinutes = Arrays.copyOf(offsetMinutes, capacity);
+        messageIds = Arrays.copyOf(messageIds, capacity);
+        authorIds = Arrays.copyOf(authorIds, capacity);
+        pathIds = Arrays.copyOf(pathIds, capacity);
+        logSeconds = Arrays.copyOf(logSeconds, capacity);
+        if (lanes != null) {
+            lanes = Arrays.copyOf(lanes, capacity);
+        }
+    }
+
+    /**
+     * Builds the log line of a commit from its date and second of day.
+     */
+    @FunctionalInterface
+    public interface LogLineFormatter {
+        String format(LocalDate date, int secondOfDay);
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.historybuilder.model;
+
+/**
+ * Enum representing how much of a build survives a crash, traded against write speed.
+ */
+public enum Durability {
+    FAST("No reflog and no syncs while writing, not even of the checkpoint journal; one sync of the repository before reporting success"),
+    DEFAULT("JGit's defaults: reflog on, no syncs except of the checkpoint journal"),
+    DURABLE("Sync objects, refs, reflogs and packs as they are written, and the repository at the end");
+
+    private final String description;
+
+    Durability(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.historybuilder.model;
+
+import java.time.LocalDate;
+
+/**
+ * Enum representing how the contribution log is split across files.
+ */
+public enum LogRotation {
+    NONE("Single contributions.log for the whole history; each commit costs more as it grows"),
+    YEARLY("One log file per year under contributions/"),
+    MONTHLY("One log file per month under contributions/");
+
+    private static final String SINGLE_LOG = "contributions.log";
+    private static final String LOG_DIRECTORY = "contributions/";
+
+    private final String description;
+
+    LogRotation(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the log file path that commits on the given date append to.
+     */
+    public String resolvePath(LocalDate date) {
+        switch (this) {
+            case YEARLY:
+                return LOG_DIRECTORY + date.getYear() + ".log";
+            case MONTHLY:
+                return String.format("%s%d-%02d.log", LOG_DIRECTORY, date.getYear(), date.getMonthValue());
+            case NONE:
+            default:
+                return SINGLE_LOG;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.historybuilder.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Interns the values a commit plan refers to by id: messages, authors, file paths and
+ * branch names. One dictionary is shared by all blocks of a run, so planner threads
+ * may intern concurrently and ids stay valid when blocks are concatenated. Messages are kept
+ * with their UTF-8 encoding, so writers never encode them per commit.
+ */
+public final class PlanDictionary {
+    private final Table<String, byte[]> messages = new Table<>(message -> message.getBytes(StandardCharsets.UTF_8));
+    private final Table<Author, Author> authors = new Table<>(Function.identity());
+    private final Table<String, String> paths = new Table<>(Function.identity());
+    private final Table<String, String> branches = new Table<>(Function.identity());
+
+    public PlanDictionary() {
+    }
+
+    /**
+     * Creates a dictionary whose first message ids are the given pre-encoded messages,
+     * so ids sampled from a fixed message set can be stored without interning.
+     */
+    public PlanDictionary(String[] messages, byte[][] encodedMessages) {
+        for (int i = 0; i < messages.length; i++) {
+            this.messages.add(messages[i], encodedMessages[i]);
+        }
+    }
+
+    public int internMessage(String message) {
+        return messages.intern(message);
+    }
+
+    public int internAuthor(Author author) {
+        return authors.intern(author);
+    }
+
+    public int internPath(String path) {
+        return paths.intern(path);
+    }
+
+    public int internBranch(String branch) {
+        return branches.intern(branch);
+    }
+
+    public String getMessage(int id) {
+        return messages.getKey(id);
+    }
+
+    /**
+     * Gets the UTF-8 encoding of a message. The array is shared and must not be modified.
+     */
+    public byte[] getEncodedMessage(int id) {
+        return messages.getValue(id);
+    }
+
+    public Author getAuthor(int id) {
+        return authors.getKey(id);
+    }
+
+    public String getPath(int id) {
+        return paths.getKey(id);
+    }
+
+    public String getBranch(int id) {
+        return branches.getKey(id);
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    /**
+     * Append-only table of keys and values derived from them once. Lookups of known
+     * keys take no lock; ids are handed out under the table's monitor, after the
+     * entry is stored.
+     */
+    private static final class Table<K, V> {
+        private final Function<K, V> derive;
+        private final ConcurrentHashMap<K, Integer> ids = new ConcurrentHashMap<>();
+        private volatile Object[] keys = new Object[16];
+        private volatile Object[] values = new Object[16];
+        private int size;
+
+        Table(Function<K, V> derive) {
+            this.derive = derive;
+        }
+
+        int intern(K key) {
+            Integer id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                id = ids.get(key);
+                return id != null ? id : add(key, derive.apply(key));
+            }
+        }
+
+        synchronized int add(K key, V value) {
+            Object[] currentKeys = keys;
+            Object[] currentValues = values;
+            if (size == currentKeys.length) {
+                currentKeys = Arrays.copyOf(currentKeys, size * 2);
+                currentValues = Arrays.copyOf(currentValues, size * 2);
+            }
+            currentKeys[size] = key;
+            currentValues[size] = value;
+            values = currentValues;
+            keys = currentKeys;
+            int id = size++;
+            ids.putIfAbsent(key, id);
+            return id;
+        }
+
+        @SuppressWarnings("unchecked")
+        K getKey(int id) {
+            return (K) keys[id];
+        }
+
+        @SuppressWarnings("unchecked")
+        V getValue(int id) {
+            return (V) values[id];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
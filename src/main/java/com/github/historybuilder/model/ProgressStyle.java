@@ -0,0 +1,21 @@
+package com.github.historybuilder.model;
+
+/**
+ * Enum representing how write progress is reported.
+ */
+public enum ProgressStyle {
+    LOG("Log a progress line at each report interval"),
+    BAR("Redraw a progress bar on standard error"),
+    JSON("Write one JSON object per report, as JSON lines"),
+    NONE("Do not report progress");
+
+    private final String description;
+
+    ProgressStyle(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.historybuilder.model;
+
+/**
+ * Enum representing the different ways commits can be written to the repository.
+ */
+public enum WriteMode {
+    WORKING_TREE("Write files to disk, stage them and commit the index"),
+    OBJECT_DATABASE("Insert blobs, trees and commits directly into the object database"),
+    PACK("Stream all objects into a delta-compressed packfile instead of loose objects"),
+    IN_MEMORY("Build the repository in memory and write it to disk as one packfile at the end"),
+    FAST_IMPORT("Emit a git fast-import stream instead of writing a repository");
+
+    private final String description;
+
+    WriteMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.historybuilder.pattern;
+
+import com.github.historybuilder.config.HistoryConfig;
+import com.github.historybuilder.model.DistributionPattern;
+import com.github.historybuilder.util.DateUtil;
+
+import java.time.LocalDate;
+
+/**
+ * Commit probability and burst multiplier of every day in a date range, computed
+ * once per plan. A pattern's probability only depends on whether a day is a weekend
+ * day and on its month, so each pattern is a kernel of 2 x 12 probabilities and the
+ * table is filled by looking days up in it, one month at a time. Planning then reads
+ * two array slots per day instead of re-deriving the calendar.
+ */
+public final class CalendarIntensityTable {
+    private static final double BURST_CHANCE = 0.05;
+    private static final double WEEKDAY_BIAS = 1.2;
+    private static final double WEEKEND_BIAS = 0.25;
+
+    private final double[] probabilities;
+    private final double[] bursts;
+
+    private CalendarIntensityTable(double[] probabilities, double[] bursts) {
+        this.probabilities = probabilities;
+        this.bursts = bursts;
+    }
+
+    /**
+     * Computes the table of the inclusive range for a pattern and the probabilities
+     * of the configuration.
+     */
+    public static CalendarIntensityTable build(DistributionPattern pattern, HistoryConfig config,
+                                               LocalDate startDate, LocalDate endDate) {
+        int days = (int) DateUtil.daysBetween(startDate, endDate);
+        double[] kernel = kernel(pattern, config);
+        double burstChance = pattern == DistributionPattern.INTELLIGENT || pattern == DistributionPattern.SEASONAL
+                ? BURST_CHANCE : 0.0;
+
+        double[] probabilities = new double[Math.max(days, 0)];
+        double[] bursts = new double[probabilities.length];
+        // 0 = Monday, so days 5 and 6 of each week are the weekend
+        int firstDayOfWeek = startDate.getDayOfWeek().getValue() - 1;
+
+        LocalDate monthStart = startDate;
+        int day = 0;
+        while (day < probabilities.length) {
+            int monthOffset = (monthStart.getMonthValue() - 1) * 2;
+            int dayOfYear = monthStart.getDayOfYear();
+            int monthEnd = Math.min(probabilities.length,
+                    day + monthStart.lengthOfMonth() - monthStart.getDayOfMonth() + 1);
+
+            for (int i = day; i < monthEnd; i++) {
+                int weekend = (firstDayOfWeek + i) % 7 / 5;
+                probabilities[i] = kernel[monthOffset + weekend];
+                bursts[i] = TimePatternCalculator.getBurstMultiplier(dayOfYear + i - day, burstChance);
+            }
+
+            monthStart = monthStart.plusDays(monthEnd - day);
+            day = monthEnd;
+        }
+        return new CalendarIntensityTable(probabilities, bursts);
+    }
+
+    /**
+     * Gets the probability of each (month, weekend) pair, indexed by
+     * {@code (month - 1) * 2 + (weekend ? 1 : 0)}.
+     */
+    private static double[] kernel(DistributionPattern pattern, HistoryConfig config) {
+        double base = config.getContributionProbability();
+        double[] kernel = new double[24];
+        for (int month = 1; month <= 12; month++) {
+            for (int weekend = 0; weekend < 2; weekend++) {
+                double dayFactor = weekend == 1
+                        ? config.getWeekendProbabilityReduction() : config.getWeekdayProbabilityBoost();
+                double probability;
+                switch (pattern) {
+                    case RANDOM:
+                        probability = base;
+                        break;
+                    case SEASONAL:
+                        probability = base * TimePatternCalculator.SEASON_FACTORS[month - 1];
+                        break;
+                    case WEEKDAY_BIASED:
+                        probability = base * dayFactor * (weekend == 1 ? WEEKEND_BIAS : WEEKDAY_BIAS);
+                        break;
+                    case INTELLIGENT:
+                    default:
+                        probability = base * dayFactor
+                                * TimePatternCalculator.getIntensityMultiplier(weekend == 1, month);
+                        break;
+                }
+                kernel[(month - 1) * 2 + weekend] = Math.min(probability, 1.0);
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Gets the probability that the day at an index from the start date has commits.
+     */
+    public double getProbability(int day) {
+        return probabilities[day];
+    }
+
+    /**
+     * Gets the factor the commit count of the day at the index is multiplied by.
+     */
+    public double getBurst(int day) {
+        return bursts[day];
+    }
+
+    /**
+     * Gets the number of days in the table.
+     */
+    public int size() {
+        return probabilities.length;
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.historybuilder.pattern;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Exact number of commits for each day of a range, read from a target heatmap file.
+ * Counts are held as one int per day, never as per-day objects.
+ *
+ * <p>Two formats are read, told apart by their first bytes:
+ * <ul>
+ *   <li>CSV: one {@code yyyy-MM-dd,count} line per day, in ascending date order.
+ *       Days left out have no commits; blank lines, {@code #} comments and a header
+ *       line are skipped. The file is read line by line.</li>
+ *   <li>Binary grid: the ASCII magic {@code HMAP}, the first day as a big-endian
+ *       int64 epoch day, the number of days as int32, then one int32 count per day.
+ *       The counts are memory-mapped and read in place.</li>
+ * </ul>
+ */
+public final class HeatmapFile {
+    static final byte[] MAGIC = {'H', 'M', 'A', 'P'};
+    private static final int HEADER_LENGTH = MAGIC.length + Long.BYTES + Integer.BYTES;
+    private static final int INITIAL_DAYS = 366;
+
+    private final LocalDate startDate;
+    private final IntBuffer counts;
+
+    private HeatmapFile(LocalDate startDate, IntBuffer counts) {
+        this.startDate = startDate;
+        this.counts = counts;
+    }
+
+    /**
+     * Reads a heatmap file in either format.
+     * @throws IllegalArgumentException if the file is malformed or has no days
+     */
+    public static HeatmapFile open(Path path) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        HeatmapFile heatmap = read == MAGIC.length && Arrays.equals(head, MAGIC) ? mapGrid(path) : readCsv(path);
+        if (heatmap.size() == 0) {
+            throw new IllegalArgumentException("Heatmap has no days: " + path);
+        }
+        return heatmap;
+    }
+
+    private static HeatmapFile mapGrid(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH) {
+                throw new IllegalArgumentException("Truncated heatmap header: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+            header.position(MAGIC.length);
+            long startEpochDay = header.getLong();
+            int days = header.getInt();
+            if (days < 0 || channel.size() < HEADER_LENGTH + (long) days * Integer.BYTES) {
+                throw new IllegalArgumentException("Heatmap grid is shorter than its " + days + " days: " + path);
+            }
+
+            // The mapping stays valid after the channel is closed
+            IntBuffer counts = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, (long) days * Integer.BYTES)
+                    .asIntBuffer();
+            for (int i = 0; i < days; i++) {
+                if (counts.get(i) < 0) {
+                    throw new IllegalArgumentException("Negative count for day " + i + " in " + path);
+                }
+            }
+            return new HeatmapFile(LocalDate.ofEpochDay(startEpochDay), counts);
+        }
+    }
+
+    private static HeatmapFile readCsv(Path path) throws IOException {
+        LocalDate startDate = null;
+        long lastDay = Long.MIN_VALUE;
+        int[] counts = new int[INITIAL_DAYS];
+        int size = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#' || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                    continue;
+                }
+
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": expected date,count");
+                }
+                long day;
+                int count;
+                try {
+                    day = LocalDate.parse(line.substring(0, comma).trim()).toEpochDay();
+                    count = Integer.parseInt(line.substring(comma + 1).trim());
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": " + e.getMessage());
+                }
+                if (day <= lastDay) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": dates must be ascending");
+                }
+                if (count < 0) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": count cannot be negative");
+                }
+
+                if (startDate == null) {
+                    startDate = LocalDate.ofEpochDay(day);
+                }
+                int index = Math.toIntExact(day - startDate.toEpochDay());
+                if (index >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(counts.length * 2, index + 1));
+                }
+                // Skipped days keep their count of 0
+                counts[index] = count;
+                size = index + 1;
+                lastDay = day;
+            }
+        }
+        return new HeatmapFile(startDate, IntBuffer.wrap(counts, 0, size).slice());
+    }
+
+    /**
+     * Gets the first day of the heatmap.
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Gets the last day of the heatmap.
+     */
+    public LocalDate getEndDate() {
+        return startDate.plusDays(size() - 1L);
+    }
+
+    /**
+     * Gets the number of commits of a date, 0 outside the heatmap.
+     */
+    public int getCount(LocalDate date) {
+        long day = date.toEpochDay() - startDate.toEpochDay();
+        return day >= 0 && day < size() ? counts.get((int) day) : 0;
+    }
+
+    /**
+     * Gets the number of commits of the day at an index from the first day.
+     */
+    public int getCount(int day) {
+        return counts.get(day);
+    }
+
+    /**
+     * Gets the number of days in the heatmap.
+     */
+    public int size() {
+        return counts.limit();
+    }
+
+    /**
+     * Gets the number of commits over all days.
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < size(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+}
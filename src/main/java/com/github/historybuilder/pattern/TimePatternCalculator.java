@@ -5,43 +5,47 @@ import java.time.LocalDate;
 
 /**
  * Calculates time patterns for contribution distribution.
+ * Planning reads these factors through a {@link CalendarIntensityTable}; the per-date
+ * methods are kept for callers that look at a single day.
  */
 public class TimePatternCalculator {
 
+    static final double WEEKDAY_INTENSITY = 1.2;  // 20% more likely on weekdays
+    static final double WEEKEND_INTENSITY = 0.5;  // 50% less likely on weekends
+    static final double MAX_INTENSITY = 2.0;
+
+    /**
+     * Seasonal factor by month, January first: lower in winter and in summer
+     * (vacation), slightly higher in spring, higher in fall (back to work).
+     */
+    static final double[] SEASON_FACTORS = {
+            0.8, 0.8,
+            1.1, 1.1, 1.1,
+            0.7, 0.7, 0.7,
+            1.3, 1.3, 1.3,
+            0.8
+    };
+
+    static final double BURST_MULTIPLIER = 2.0;
+
     /**
      * Gets the intensity multiplier for a given date.
      * This affects how likely commits are to occur on that day.
      * Returns a value between 0.0 and 2.0.
      */
     public static double getIntensityMultiplier(LocalDate date) {
-        double multiplier = 1.0;
-
-        // Weekday/weekend bias
-        if (DateUtil.isWeekend(date)) {
-            multiplier *= 0.5; // 50% less likely on weekends
-        } else {
-            multiplier *= 1.2; // 20% more likely on weekdays
-        }
+        return getIntensityMultiplier(DateUtil.isWeekend(date), date.getMonthValue());
+    }
 
-        // Seasonal adjustment
-        String season = DateUtil.getSeason(date);
-        switch (season) {
-            case "WINTER":
-                multiplier *= 0.8; // Slightly lower in winter
-                break;
-            case "SPRING":
-                multiplier *= 1.1; // Slightly higher in spring
-                break;
-            case "SUMMER":
-                multiplier *= 0.7; // Lower in summer (vacation)
-                break;
-            case "FALL":
-                multiplier *= 1.3; // Higher in fall (back to work)
-                break;
-        }
+    /**
+     * Gets the intensity multiplier for a day of the given kind in the given month (1-12).
+     */
+    static double getIntensityMultiplier(boolean weekend, int month) {
+        double multiplier = weekend ? WEEKEND_INTENSITY : WEEKDAY_INTENSITY;
+        multiplier *= SEASON_FACTORS[month - 1];
 
         // Cap the multiplier
-        return Math.min(multiplier, 2.0);
+        return Math.min(multiplier, MAX_INTENSITY);
     }
 
     /**
@@ -49,14 +53,19 @@ public class TimePatternCalculator {
      * Returns a value between 0.0 and 3.0 for burst days.
      */
     public static double getBurstMultiplier(LocalDate date, double burstChance) {
+        return getBurstMultiplier(date.getDayOfYear(), burstChance);
+    }
+
+    /**
+     * Gets the burst multiplier for a day of the year (1-366).
+     */
+    static double getBurstMultiplier(int dayOfYear, double burstChance) {
         // Create pseudo-random burst days based on date
-        int dayOfYear = date.getDayOfYear();
         int hash = (dayOfYear * 17 + 13) % 100;
 
         if (hash < (burstChance * 100)) {
-            return 2.0; // Double commits on burst days
+            return BURST_MULTIPLIER; // Double commits on burst days
         }
         return 1.0;
     }
 }
-
@@ -0,0 +1,271 @@
+package com.github.historybuilder.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters of one build: time per phase, commits, bytes written, objects
+ * inserted and the latency of each commit. Phase times may be added from any thread;
+ * HASHING sums the time of all hashing threads, so it can exceed the build time.
+ * Commit latencies are recorded by the writing thread only.
+ *
+ * <p>The metrics can be written as JSON or in the Prometheus text format, e.g. for a
+ * node exporter's textfile collector.
+ */
+public class BuildMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(BuildMetrics.class);
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Parts of a build that are timed separately.
+     */
+    public enum Phase {
+        PLAN("Planning commits on the generator thread"),
+        INITIALIZE("Creating or opening the repository"),
+        FILE_IO("Appending to files in the working tree"),
+        STAGING("Adding files to the index"),
+        COMMIT("Committing the index"),
+        OBJECT_WRITE("Building blobs, trees and commits on the writer thread"),
+        HASHING("Hashing, compressing and inserting objects, all threads"),
+        FAST_IMPORT("Encoding the fast-import stream"),
+        CHECKPOINT("Taking checkpoints"),
+        FLUSH("Flushing inserted objects"),
+        REPACK("Delta-compressing the pack"),
+        REF_UPDATE("Updating refs"),
+        CHECKOUT("Checking out the last commit"),
+        SYNC("Syncing the written repository to disk");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder objectsInserted = new LongAdder();
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+    private final long startNanos = System.nanoTime();
+    private long buildNanos;
+
+    /**
+     * Adds time spent in a phase.
+     */
+    public void addTime(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Starts timing a phase; stopping the timer adds the elapsed time.
+     */
+    public Timer time(Phase phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Records one written commit and how long writing it took.
+     */
+    public void recordCommit(long latencyNanos) {
+        commits.increment();
+        commitLatency.record(latencyNanos);
+    }
+
+    public void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    public void addObjectsInserted(long objects) {
+        objectsInserted.add(objects);
+    }
+
+    /**
+     * Stops the build clock.
+     */
+    public void finish() {
+        buildNanos = System.nanoTime() - startNanos;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getObjectsInserted() {
+        return objectsInserted.sum();
+    }
+
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+
+    /**
+     * Gets the build time, up to now if the build has not finished.
+     */
+    public long getBuildNanos() {
+        return buildNanos > 0 ? buildNanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Gets the written commits per second of build time.
+     */
+    public double getCommitsPerSecond() {
+        long nanos = getBuildNanos();
+        return nanos > 0 ? getCommits() * NANOS_PER_SECOND / nanos : 0;
+    }
+
+    /**
+     * Logs the phases that took any time and the commit rate.
+     */
+    public void logSummary() {
+        for (Phase phase : Phase.values()) {
+            long nanos = getPhaseNanos(phase);
+            if (nanos > 0) {
+                logger.info("  {}: {}ms", phase, nanos / 1_000_000);
+            }
+        }
+        logger.info("  {} commits/s, p50 {}us, p99 {}us per commit", String.format(Locale.ROOT, "%.1f",
+                getCommitsPerSecond()), commitLatency.getPercentile(0.5) / 1000, commitLatency.getPercentile(0.99) / 1000);
+    }
+
+    /**
+     * Writes the metrics to a file: JSON if its name ends in {@code .json}, otherwise
+     * the Prometheus text format.
+     */
+    public void write(Path file, String repository) throws IOException {
+        String content = file.getFileName().toString().endsWith(".json") ? toJson(repository) : toPrometheus(repository);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        logger.info("Wrote build metrics to: {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Formats the metrics as a JSON document.
+     */
+    public String toJson(String repository) throws IOException {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            phases.put(phase.name().toLowerCase(Locale.ROOT), getPhaseNanos(phase) / NANOS_PER_SECOND);
+        }
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double quantile : QUANTILES) {
+            latency.put("p" + formatQuantile(quantile * 100), commitLatency.getPercentile(quantile) / NANOS_PER_SECOND);
+        }
+        latency.put("max", commitLatency.getMax() / NANOS_PER_SECOND);
+        latency.put("mean", commitLatency.getCount() > 0
+                ? commitLatency.getSum() / NANOS_PER_SECOND / commitLatency.getCount() : 0.0);
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("repository", repository);
+        document.put("build_seconds", getBuildNanos() / NANOS_PER_SECOND);
+        document.put("commits", getCommits());
+        document.put("commits_per_second", getCommitsPerSecond());
+        document.put("bytes_written", getBytesWritten());
+        document.put("objects_inserted", getObjectsInserted());
+        document.put("phase_seconds", phases);
+        document.put("commit_latency_seconds", latency);
+        return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(document) + "\n";
+    }
+
+    /**
+     * Formats the metrics in the Prometheus text exposition format.
+     */
+    public String toPrometheus(String repository) {
+        String label = "repository=\"" + escapeLabel(repository) + "\"";
+        StringBuilder out = new StringBuilder();
+
+        metric(out, "history_builder_build_seconds", "gauge", "Wall-clock time of the build");
+        sample(out, "history_builder_build_seconds", label, getBuildNanos() / NANOS_PER_SECOND);
+        metric(out, "history_builder_phase_seconds", "gauge", "Time spent per build phase");
+        for (Phase phase : Phase.values()) {
+            sample(out, "history_builder_phase_seconds",
+                    label + ",phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"",
+                    getPhaseNanos(phase) / NANOS_PER_SECOND);
+        }
+        metric(out, "history_builder_commits_total", "counter", "Commits written");
+        sample(out, "history_builder_commits_total", label, getCommits());
+        metric(out, "history_builder_commits_per_second", "gauge", "Commits written per second of build time");
+        sample(out, "history_builder_commits_per_second", label, getCommitsPerSecond());
+        metric(out, "history_builder_bytes_written_total", "counter", "Bytes written: file appends, object data or stream");
+        sample(out, "history_builder_bytes_written_total", label, getBytesWritten());
+        metric(out, "history_builder_objects_inserted_total", "counter", "Git objects inserted");
+        sample(out, "history_builder_objects_inserted_total", label, getObjectsInserted());
+
+        metric(out, "history_builder_commit_latency_seconds", "summary", "Time to write one commit");
+        for (double quantile : QUANTILES) {
+            sample(out, "history_builder_commit_latency_seconds",
+                    label + ",quantile=\"" + formatQuantile(quantile) + "\"",
+                    commitLatency.getPercentile(quantile) / NANOS_PER_SECOND);
+        }
+        sample(out, "history_builder_commit_latency_seconds_sum", label, commitLatency.getSum() / NANOS_PER_SECOND);
+        sample(out, "history_builder_commit_latency_seconds_count", label, commitLatency.getCount());
+        return out.toString();
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append('{').append(labels).append("} ").append(formatValue(value)).append('\n');
+    }
+
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String formatQuantile(double quantile) {
+        String text = Double.toString(quantile);
+        return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+    }
+
+    private static String escapeLabel(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Times one phase until stopped.
+     */
+    public final class Timer {
+        private final Phase phase;
+        private final long start = System.nanoTime();
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+        }
+
+        public void stop() {
+            addTime(phase, System.nanoTime() - start);
+        }
+    }
+}
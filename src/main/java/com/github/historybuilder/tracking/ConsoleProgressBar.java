@@ -0,0 +1,51 @@
+package com.github.historybuilder.tracking;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redraws a single progress bar line on a terminal stream, standard error by default,
+ * and ends it with a newline when writing has finished.
+ */
+public class ConsoleProgressBar implements ProgressListener {
+    private static final int WIDTH = 40;
+
+    private final PrintStream out;
+
+    public ConsoleProgressBar() {
+        this(System.err);
+    }
+
+    public ConsoleProgressBar(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onProgress(ProgressEvent event) {
+        out.print('\r' + render(event));
+        out.flush();
+    }
+
+    @Override
+    public void onFinish(ProgressEvent event) {
+        out.println('\r' + render(event));
+    }
+
+    private static String render(ProgressEvent event) {
+        int filled = (int) (event.getPercentage() * WIDTH / 100);
+        StringBuilder line = new StringBuilder(WIDTH + 64).append('[');
+        for (int i = 0; i < WIDTH; i++) {
+            line.append(i < filled ? '#' : '-');
+        }
+        line.append("] ").append(String.format(Locale.ROOT, "%5.1f%% %d/%d %.0f/s",
+                event.getPercentage(), event.getProcessed(), event.getTotal(), event.getRatePerSecond()));
+        if (event.isFinished()) {
+            line.append(" in ").append(TimeUnit.NANOSECONDS.toSeconds(event.getElapsedNanos())).append('s');
+        } else {
+            line.append(" ETA ").append(LogProgressListener.formatEta(event.getEtaNanos()));
+        }
+        // Pad over the remains of a longer previous line
+        return line.append("   ").toString();
+    }
+}
@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Reports execution statistics and summary.
@@ -19,10 +21,49 @@ public class ExecutionReport {
     private String repositoryPath;
     private boolean success;
     private String errorMessage;
+    private BuildMetrics metrics;
 
     public ExecutionReport() {
     }
 
+    /**
+     * Combines the reports of a batch into one. Counts are summed, the date range spans
+     * all entries and the run succeeds only if every entry did.
+     * @param executionTimeMs wall-clock time of the whole batch
+     */
+    public static ExecutionReport aggregate(List<ExecutionReport> reports, long executionTimeMs) {
+        ExecutionReport total = new ExecutionReport();
+        total.setExecutionTimeMs(executionTimeMs);
+        total.setSuccess(true);
+
+        List<String> paths = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (ExecutionReport report : reports) {
+            total.totalCommitsGenerated += report.totalCommitsGenerated;
+            total.totalDaysWithCommits += report.totalDaysWithCommits;
+            if (report.startDate != null && (total.startDate == null || report.startDate.isBefore(total.startDate))) {
+                total.startDate = report.startDate;
+            }
+            if (report.endDate != null && (total.endDate == null || report.endDate.isAfter(total.endDate))) {
+                total.endDate = report.endDate;
+            }
+            if (report.repositoryPath != null) {
+                paths.add(report.repositoryPath);
+            }
+            if (!report.success) {
+                total.success = false;
+                errors.add(report.repositoryPath + ": " + report.errorMessage);
+            }
+        }
+
+        total.setRepositoryPath(String.join(", ", paths));
+        if (!errors.isEmpty()) {
+            total.setErrorMessage(errors.size() + " of " + reports.size() + " builds failed; "
+                    + String.join("; ", errors));
+        }
+        return total;
+    }
+
     /**
      * Prints a formatted summary report.
      */
@@ -39,6 +80,10 @@ public class ExecutionReport {
         logger.info("Date Range: {} to {}", startDate, endDate);
         logger.info("Execution Time: {}ms ({} seconds)", executionTimeMs, executionTimeMs / 1000);
         logger.info("Repository Path: {}", repositoryPath);
+        if (metrics != null) {
+            logger.info("Phases:");
+            metrics.logSummary();
+        }
         logger.info("======================");
     }
 
@@ -51,6 +96,17 @@ public class ExecutionReport {
         this.totalCommitsGenerated = totalCommitsGenerated;
     }
 
+    /**
+     * Gets the timers and counters of the build, or null for a combined batch report.
+     */
+    public BuildMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public int getTotalDaysWithCommits() {
         return totalDaysWithCommits;
     }
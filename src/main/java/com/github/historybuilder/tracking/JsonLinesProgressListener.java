@@ -0,0 +1,73 @@
+package com.github.historybuilder.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes each progress report as one JSON object per line, for other programs to
+ * follow, e.g.
+ * {@code {"processed":1200,"total":5000,"percent":24.0,"elapsed_seconds":3.1,"commits_per_second":391.2,"eta_seconds":9.7,"finished":false}}.
+ * The ETA is null while unknown.
+ */
+public class JsonLinesProgressListener implements ProgressListener, AutoCloseable {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final OutputStream out;
+    private final boolean closeStream;
+
+    /**
+     * Creates a listener writing to the given stream.
+     * @param closeStream whether {@link #close()} closes the stream (false for stderr)
+     */
+    public JsonLinesProgressListener(OutputStream out, boolean closeStream) {
+        this.out = out;
+        this.closeStream = closeStream;
+    }
+
+    @Override
+    public void onProgress(ProgressEvent event) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("processed", event.getProcessed());
+        line.put("total", event.getTotal());
+        line.put("percent", event.getPercentage());
+        line.put("elapsed_seconds", event.getElapsedNanos() / NANOS_PER_SECOND);
+        line.put("commits_per_second", event.getRatePerSecond());
+        line.put("eta_seconds", event.getEtaNanos() >= 0 ? event.getEtaNanos() / NANOS_PER_SECOND : null);
+        line.put("finished", event.isFinished());
+        try {
+            out.write((mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write progress", e);
+        }
+    }
+
+    /**
+     * Writes the final report and closes the stream, as nothing follows it.
+     */
+    @Override
+    public void onFinish(ProgressEvent event) {
+        onProgress(event);
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close progress output", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closeStream) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.historybuilder.tracking;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs one line per progress report.
+ */
+public class LogProgressListener implements ProgressListener {
+    private static final Logger logger = LoggerFactory.getLogger(LogProgressListener.class);
+
+    @Override
+    public void onProgress(ProgressEvent event) {
+        logger.info("[{}/{} ({}%)] {} commits/s - Elapsed: {}s, ETA: {}", event.getProcessed(), event.getTotal(),
+                String.format(Locale.ROOT, "%.1f", event.getPercentage()),
+                String.format(Locale.ROOT, "%.1f", event.getRatePerSecond()),
+                TimeUnit.NANOSECONDS.toSeconds(event.getElapsedNanos()), formatEta(event.getEtaNanos()));
+    }
+
+    @Override
+    public void onFinish(ProgressEvent event) {
+        logger.info("Progress: {} commits in {}s ({} commits/s)", event.getProcessed(),
+                TimeUnit.NANOSECONDS.toSeconds(event.getElapsedNanos()),
+                String.format(Locale.ROOT, "%.1f", event.getRatePerSecond()));
+    }
+
+    static String formatEta(long etaNanos) {
+        return etaNanos < 0 ? "unknown" : TimeUnit.NANOSECONDS.toSeconds(etaNanos) + "s";
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.historybuilder.tracking;
+
+import com.github.historybuilder.generator.PlanSink;
+import com.github.historybuilder.model.CommitPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Summarizes a plan as its blocks stream past, without creating commits. Each
+ * commit only increments the counter of its local day, so memory grows with the
+ * number of days in the range, not with the number of commits. The histograms,
+ * streak and busiest day are derived from the day counters when asked for.
+ */
+public class PlanStatistics implements PlanSink {
+    private static final Logger logger = LoggerFactory.getLogger(PlanStatistics.class);
+
+    private final long firstEpochDay;
+    private int[] commitsPerDay;
+    private long totalCommits;
+    private long merges;
+
+    /**
+     * Creates statistics for a plan of the inclusive range. Commits on later days,
+     * e.g. merges just after midnight, are counted too.
+     */
+    public PlanStatistics(LocalDate startDate, LocalDate endDate) {
+        this.firstEpochDay = startDate.toEpochDay();
+        this.commitsPerDay = new int[(int) Math.max(endDate.toEpochDay() - firstEpochDay + 2, 1)];
+    }
+
+    @Override
+    public void accept(CommitPlan block) {
+        for (int i = 0; i < block.size(); i++) {
+            int day = (int) (block.getLocalEpochDay(i) - firstEpochDay);
+            if (day < 0) {
+                throw new IllegalArgumentException("Commit on " + block.getLocalDate(i) + " is before the plan");
+            }
+            if (day >= commitsPerDay.length) {
+                commitsPerDay = Arrays.copyOf(commitsPerDay, Math.max(commitsPerDay.length * 2, day + 1));
+            }
+            commitsPerDay[day]++;
+            if (block.isMerge(i)) {
+                merges++;
+            }
+        }
+        totalCommits += block.size();
+    }
+
+    public long getTotalCommits() {
+        return totalCommits;
+    }
+
+    /**
+     * Gets the number of merge commits, which are included in the total.
+     */
+    public long getMerges() {
+        return merges;
+    }
+
+    /**
+     * Gets the number of days with at least one commit.
+     */
+    public int getActiveDays() {
+        int active = 0;
+        for (int count : commitsPerDay) {
+            if (count > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Gets the largest number of consecutive days with commits.
+     */
+    public int getLongestStreak() {
+        int longest = 0;
+        int current = 0;
+        for (int count : commitsPerDay) {
+            current = count > 0 ? current + 1 : 0;
+            longest = Math.max(longest, current);
+        }
+        return longest;
+    }
+
+    /**
+     * Gets the largest number of commits on one day.
+     */
+    public int getMaxCommitsPerDay() {
+        int max = 0;
+        for (int count : commitsPerDay) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the first day with the most commits, or null if the plan is empty.
+     */
+    public LocalDate getBusiestDay() {
+        int busiest = -1;
+        int max = 0;
+        for (int day = 0; day < commitsPerDay.length; day++) {
+            if (commitsPerDay[day] > max) {
+                max = commitsPerDay[day];
+                busiest = day;
+            }
+        }
+        return busiest >= 0 ? LocalDate.ofEpochDay(firstEpochDay + busiest) : null;
+    }
+
+    /**
+     * Gets the number of commits per day of the week, Monday first.
+     */
+    public long[] getCommitsByWeekday() {
+        long[] histogram = new long[7];
+        // 1970-01-01, epoch day 0, was a Thursday
+        for (int day = 0; day < commitsPerDay.length; day++) {
+            histogram[(int) Math.floorMod(firstEpochDay + day + 3, 7L)] += commitsPerDay[day];
+        }
+        return histogram;
+    }
+
+    /**
+     * Gets the number of commits per month of the year, January first.
+     */
+    public long[] getCommitsByMonth() {
+        long[] histogram = new long[12];
+        LocalDate monthStart = LocalDate.ofEpochDay(firstEpochDay);
+        int day = 0;
+        while (day < commitsPerDay.length) {
+            int monthEnd = Math.min(commitsPerDay.length,
+                    day + monthStart.lengthOfMonth() - monthStart.getDayOfMonth() + 1);
+            long commits = 0;
+            for (int i = day; i < monthEnd; i++) {
+                commits += commitsPerDay[i];
+            }
+            histogram[monthStart.getMonthValue() - 1] += commits;
+
+            monthStart = monthStart.plusDays(monthEnd - day);
+            day = monthEnd;
+        }
+        return histogram;
+    }
+
+    /**
+     * Logs the summary of the plan.
+     */
+    public void logSummary() {
+        logger.info("=== PLAN STATISTICS ===");
+        logger.info("Commits: {} ({} merges)", totalCommits, merges);
+        logger.info("Active Days: {}", getActiveDays());
+        logger.info("Longest Streak: {} days", getLongestStreak());
+        logger.info("Max Commits per Day: {} (on {})", getMaxCommitsPerDay(), getBusiestDay());
+
+        long[] weekdays = getCommitsByWeekday();
+        StringBuilder line = new StringBuilder();
+        for (DayOfWeek weekday : DayOfWeek.values()) {
+            line.append(weekday.getDisplayName(TextStyle.SHORT, Locale.ENGLISH)).append(' ')
+                    .append(weekdays[weekday.ordinal()]).append("  ");
+        }
+        logger.info("By Weekday: {}", line.toString().trim());
+
+        long[] months = getCommitsByMonth();
+        line.setLength(0);
+        for (Month month : Month.values()) {
+            line.append(month.getDisplayName(TextStyle.SHORT, Locale.ENGLISH)).append(' ')
+                    .append(months[month.ordinal()]).append("  ");
+        }
+        logger.info("By Month: {}", line.toString().trim());
+        logger.info("=======================");
+    }
+}
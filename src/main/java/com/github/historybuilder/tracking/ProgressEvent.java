@@ -0,0 +1,68 @@
+package com.github.historybuilder.tracking;
+
+/**
+ * Snapshot of write progress at one report.
+ */
+public final class ProgressEvent {
+    private final long processed;
+    private final long total;
+    private final long elapsedNanos;
+    private final double ratePerSecond;
+    private final long etaNanos;
+    private final boolean finished;
+
+    public ProgressEvent(long processed, long total, long elapsedNanos, double ratePerSecond, long etaNanos,
+                         boolean finished) {
+        this.processed = processed;
+        this.total = total;
+        this.elapsedNanos = elapsedNanos;
+        this.ratePerSecond = ratePerSecond;
+        this.etaNanos = etaNanos;
+        this.finished = finished;
+    }
+
+    /**
+     * Gets the number of commits written so far.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Gets the number of commits planned so far. Planning runs ahead of writing, so
+     * this is the final total long before writing ends.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the percentage of the planned commits written, 0 when nothing is planned.
+     */
+    public double getPercentage() {
+        return total > 0 ? Math.min(100.0, 100.0 * processed / total) : 0;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the smoothed number of commits written per second.
+     */
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Gets the estimated time until the planned commits are written, or -1 while no
+     * rate is known yet.
+     */
+    public long getEtaNanos() {
+        return etaNanos;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
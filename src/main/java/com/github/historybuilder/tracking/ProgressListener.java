@@ -0,0 +1,20 @@
+package com.github.historybuilder.tracking;
+
+/**
+ * Receives progress reports from a {@link ProgressTracker}. Reports are delivered one
+ * at a time, at most once per report interval, on whichever writer thread crossed it.
+ */
+public interface ProgressListener {
+
+    /**
+     * Receives a periodic report.
+     */
+    void onProgress(ProgressEvent event);
+
+    /**
+     * Receives the final report once writing has finished.
+     */
+    default void onFinish(ProgressEvent event) {
+        onProgress(event);
+    }
+}
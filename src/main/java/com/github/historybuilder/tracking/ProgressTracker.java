@@ -1,61 +1,155 @@
 package com.github.historybuilder.tracking;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Tracks progress of commit generation and repository creation.
+ * Counting is lock-free: commits and planned commits go to {@link LongAdder}s, so any
+ * number of writer and planner threads can record without contending. A thread that
+ * records after the report interval has passed claims the next report with one
+ * compare-and-set and hands a snapshot to the listeners; all other calls only add
+ * and read the clock.
+ *
+ * <p>The ETA divides the remaining commits by an exponentially smoothed rate, so one
+ * slow interval (a checkpoint, a log rotation) does not make it jump.
  */
 public class ProgressTracker {
-    private static final Logger logger = LoggerFactory.getLogger(ProgressTracker.class);
-    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * Weight of the newest interval's rate in the smoothed rate.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder planned = new LongAdder();
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final long intervalNanos;
+    private final long startNanos;
+    private final AtomicLong nextReportNanos;
+    // Rates are measured from the first written commit, not from planning and setup
+    private volatile long firstProgressNanos;
+
+    // Only touched while reporting, which is serialized
+    private long skipped;
+    private long lastReportNanos;
+    private long lastReportProcessed;
+    private double smoothedRate = -1;
+
+    /**
+     * Creates a tracker that reports at most once per interval.
+     */
+    public ProgressTracker(long interval, TimeUnit unit) {
+        this.intervalNanos = unit.toNanos(interval);
+        this.startNanos = System.nanoTime();
+        this.nextReportNanos = new AtomicLong(startNanos + intervalNanos);
+    }
 
-    private long totalCommits;
-    private long processedCommits;
-    private long startTime;
+    public ProgressTracker addListener(ProgressListener listener) {
+        listeners.add(listener);
+        return this;
+    }
 
-    public ProgressTracker(long totalCommits) {
-        this.totalCommits = totalCommits;
-        this.processedCommits = 0;
-        this.startTime = System.currentTimeMillis();
+    /**
+     * Adds commits that the plan has produced, e.g. from the generator thread.
+     */
+    public void addPlanned(long commits) {
+        planned.add(commits);
     }
 
     /**
-     * Records progress on a single commit.
+     * Counts commits that were already written before this run, e.g. by a resumed build.
+     * They count towards completion but not towards the rate.
      */
-    public void recordProgress(int commitsBatch) {
-        processedCommits += commitsBatch;
+    public synchronized void addSkipped(long commits) {
+        processed.add(commits);
+        skipped += commits;
+        lastReportProcessed += commits;
+    }
 
-        if (processedCommits % 100 == 0 || processedCommits == totalCommits) {
-            double percentage = (100.0 * processedCommits) / totalCommits;
-            long elapsedMs = System.currentTimeMillis() - startTime;
-            long estimatedRemainingMs = (long) ((elapsedMs * (totalCommits - processedCommits)) / processedCommits);
+    /**
+     * Records written commits and reports if the interval has passed.
+     */
+    public void recordProgress(long commits) {
+        processed.add(commits);
 
-            long elapsedSec = elapsedMs / 1000;
-            long estimatedRemainingSec = estimatedRemainingMs / 1000;
+        long now = System.nanoTime();
+        if (firstProgressNanos == 0) {
+            markFirstProgress(now);
+        }
+        long due = nextReportNanos.get();
+        if (now - due >= 0 && nextReportNanos.compareAndSet(due, now + intervalNanos)) {
+            report(now, false);
+        }
+    }
 
-            logger.info("[{}/{} ({:.1f}%)] Processed - Elapsed: {}s, ETA: {}s",
-                    processedCommits, totalCommits, percentage,
-                    elapsedSec, estimatedRemainingSec);
+    private synchronized void markFirstProgress(long now) {
+        if (firstProgressNanos == 0) {
+            firstProgressNanos = now;
+            lastReportNanos = now;
+            nextReportNanos.set(now + intervalNanos);
         }
     }
 
+    /**
+     * Sends the final report.
+     */
+    public void finish() {
+        report(System.nanoTime(), true);
+    }
+
+    private synchronized void report(long now, boolean finished) {
+        long done = processed.sum();
+        long total = Math.max(planned.sum(), done);
+
+        long elapsed = now - lastReportNanos;
+        if (firstProgressNanos != 0 && elapsed > 0 && done > lastReportProcessed) {
+            double rate = (done - lastReportProcessed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            smoothedRate = smoothedRate < 0 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * smoothedRate;
+        }
+        lastReportNanos = now;
+        lastReportProcessed = done;
+
+        long eta = finished ? 0 : smoothedRate > 0
+                ? (long) ((total - done) / smoothedRate * TimeUnit.SECONDS.toNanos(1)) : -1;
+        double rate = finished ? getAverageRate(now, done) : Math.max(smoothedRate, 0);
+        ProgressEvent event = new ProgressEvent(done, total, now - startNanos, rate, eta, finished);
+        for (ProgressListener listener : listeners) {
+            if (finished) {
+                listener.onFinish(event);
+            } else {
+                listener.onProgress(event);
+            }
+        }
+    }
+
+    private double getAverageRate(long now, long done) {
+        long elapsed = now - firstProgressNanos;
+        return firstProgressNanos != 0 && elapsed > 0 ? (done - skipped) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+    }
+
+    /**
+     * Gets the number of commits written so far.
+     */
+    public long getProcessed() {
+        return processed.sum();
+    }
+
     /**
      * Gets the percentage complete.
      */
     public double getPercentageComplete() {
-        if (totalCommits == 0) return 0;
-        return (100.0 * processedCommits) / totalCommits;
+        long total = planned.sum();
+        if (total == 0) return 0;
+        return Math.min(100.0, (100.0 * processed.sum()) / total);
     }
 
     /**
      * Gets elapsed time in seconds.
      */
     public long getElapsedSeconds() {
-        return (System.currentTimeMillis() - startTime) / 1000;
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
     }
 }
-
@@ -0,0 +1,67 @@
+package com.github.historybuilder.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Forces written files to disk. Files are opened for reading only, since git objects
+ * are read-only; syncing a read-only descriptor still flushes the file's data.
+ */
+public class FileSync {
+
+    /**
+     * Syncs one file and the directory holding its name.
+     */
+    public static void sync(Path file) throws IOException {
+        force(file);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            syncDirectory(parent);
+        }
+    }
+
+    /**
+     * Syncs every file under a directory, then the directories themselves, so both the
+     * contents and the names of renamed files such as packs and refs are on disk.
+     */
+    public static void syncTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.isRegularFile()) {
+                    force(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                syncDirectory(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try {
+            force(directory);
+        } catch (IOException e) {
+            // Not every platform can open a directory for syncing; there only the files are synced
+        }
+    }
+}